@@ -0,0 +1,81 @@
+#!/usr/bin/env python3
+"""Closed-loop HTTP/1.1 load generator: keeps N keep-alive connections busy for a fixed time.
+
+Usage: load.py URL [--connections N] [--duration SECONDS] [--accept MEDIA_TYPE]
+Prints requests/s, error count and latency percentiles in milliseconds.
+"""
+import argparse
+import asyncio
+import time
+from urllib.parse import urlsplit
+
+
+async def read_response(reader):
+    status = int((await reader.readline()).split()[1])
+    length, chunked = None, False
+    while True:
+        line = await reader.readline()
+        if line in (b"\r\n", b""):
+            break
+        name, _, value = line.decode("latin-1").partition(":")
+        name = name.strip().lower()
+        if name == "content-length":
+            length = int(value)
+        elif name == "transfer-encoding" and "chunked" in value.lower():
+            chunked = True
+    if chunked:
+        while True:
+            size = int((await reader.readline()).split(b";")[0], 16)
+            await reader.readexactly(size + 2)
+            if size == 0:
+                break
+    elif length:
+        await reader.readexactly(length)
+    return status
+
+
+async def worker(url, accept, deadline, latencies, errors):
+    parts = urlsplit(url)
+    target = parts.path + ("?" + parts.query if parts.query else "")
+    request = ("GET %s HTTP/1.1\r\nHost: %s\r\nAccept: %s\r\n\r\n" % (target, parts.netloc, accept)).encode()
+    reader, writer = await asyncio.open_connection(parts.hostname, parts.port or 80)
+    try:
+        while time.monotonic() < deadline:
+            start = time.monotonic()
+            writer.write(request)
+            status = await read_response(reader)
+            latencies.append(time.monotonic() - start)
+            if status >= 400:
+                errors[0] += 1
+    except (ConnectionError, asyncio.IncompleteReadError):
+        errors[0] += 1
+    finally:
+        writer.close()
+
+
+async def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("url")
+    parser.add_argument("--connections", type=int, default=100)
+    parser.add_argument("--duration", type=float, default=30)
+    parser.add_argument("--accept", default="application/json")
+    args = parser.parse_args()
+
+    latencies, errors = [], [0]
+    deadline = time.monotonic() + args.duration
+    started = time.monotonic()
+    await asyncio.gather(*(worker(args.url, args.accept, deadline, latencies, errors)
+                           for _ in range(args.connections)), return_exceptions=True)
+    elapsed = time.monotonic() - started
+    latencies.sort()
+
+    def percentile(p):
+        return latencies[min(len(latencies) - 1, int(len(latencies) * p))] * 1000 if latencies else float("nan")
+
+    print("%-60s conns=%-6d req/s=%-9.1f errors=%-6d p50=%.1fms p99=%.1fms max=%.1fms" % (
+        args.url, args.connections, len(latencies) / elapsed, errors[0], percentile(0.5), percentile(0.99),
+        percentile(1.0)))
+
+
+if __name__ == "__main__":
+    asyncio.run(main())
@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+# Compares the servlet (MVC + JPA) and reactive (WebFlux + R2DBC) stacks on the same database.
+# Starts one instance of each from the packaged jar, seeds 1000 horses through the batch endpoint (they are left in
+# place) and runs bench/load.py against both at increasing connection counts.
+#
+# Usage: bench/reactive-vs-mvc.sh [connection counts...]   (default: 100 1000 5000)
+# Needs MySQL running as for the tests, python3 and a built jar (mvn package -Dmaven.test.skip=true).
+# Raise the open file limit (ulimit -n) above the highest connection count first.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=$(ls target/animals-api-*.jar | head -1)
+DURATION=${DURATION:-30}
+COUNTS=("${@:-100 1000 5000}")
+COUNTS=(${COUNTS[@]})
+
+java -jar "$JAR" --server.port=8080 > target/bench-mvc.log 2>&1 &
+MVC=$!
+java -jar "$JAR" --server.port=8081 --spring.profiles.active=reactive > target/bench-reactive.log 2>&1 &
+REACTIVE=$!
+trap 'kill $MVC $REACTIVE 2>/dev/null' EXIT
+
+for port in 8080 8081; do
+  until curl -sf "http://localhost:$port/actuator/health" > /dev/null; do sleep 1; done
+done
+
+BATCH=$(python3 -c 'import json; print(json.dumps([{"name": "Horse %d" % i, "description": "Bench"} for i in range(1000)]))')
+curl -sf -o /dev/null -H 'Content-Type: application/json' -d "$BATCH" http://localhost:8080/api/1/horses/batch
+
+for path in "/api/1/horses?limit=100" "/api/1/horses"; do
+  for conns in "${COUNTS[@]}"; do
+    python3 bench/load.py "http://localhost:8080$path" --connections "$conns" --duration "$DURATION"
+    python3 bench/load.py "http://localhost:8081$path" --connections "$conns" --duration "$DURATION"
+  done
+done
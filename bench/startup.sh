@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Measures the time from JVM start to the first answered request, the median of RUNS starts, for the default setup,
+# the fast-startup profile from the jar and unpacked, and unpacked with an AppCDS archive built the way the Dockerfile
+# does.
+#
+# Usage: bench/startup.sh
+# Needs MySQL running and migrated as for the tests, JDK 11 or later and a built jar
+# (mvn package -Dmaven.test.skip=true).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=$(ls target/animals-api-*.jar | head -1)
+RUNS=${RUNS:-5}
+CDS=target/cds
+
+rm -rf "$CDS" && mkdir -p "$CDS/unpacked" "$CDS/lib"
+(cd "$CDS/unpacked" && jar -xf "../../../$JAR")
+mv "$CDS"/unpacked/BOOT-INF/lib/*.jar "$CDS/lib/"
+# The Spring Boot jar keeps META-INF (spring.factories included) next to BOOT-INF rather than in the classes.
+rm "$CDS/unpacked/META-INF/MANIFEST.MF" && cp -r "$CDS/unpacked/META-INF" "$CDS/unpacked/BOOT-INF/classes/"
+jar -cf "$CDS/lib/application.jar" -C "$CDS/unpacked/BOOT-INF/classes" .
+CLASSPATH_ARG="-cp $(ls "$PWD"/$CDS/lib/*.jar | sort | paste -sd: -)"
+MAIN=cx.catapult.animals.AnimalsApiApplication
+java -XX:DumpLoadedClassList="$CDS/classes.lst" $CLASSPATH_ARG $MAIN \
+  --spring.profiles.active=fast-startup --animals.startup.training-run=true > "$CDS/training.log" 2>&1
+java -Xshare:dump -XX:SharedClassListFile="$CDS/classes.lst" -XX:SharedArchiveFile="$CDS/app.jsa" $CLASSPATH_ARG \
+  > "$CDS/dump.log" 2>&1
+
+# Prints the milliseconds from starting the command to the first answer of GET /api/1/horses/1.
+first_request() {
+  local start pid ms
+  start=$(date +%s%N)
+  "$@" > target/bench-startup.log 2>&1 &
+  pid=$!
+  until curl -s -o /dev/null http://localhost:8080/api/1/horses/1; do sleep 0.05; done
+  ms=$(( ($(date +%s%N) - start) / 1000000 ))
+  kill $pid && wait $pid 2>/dev/null || true
+  echo $ms
+}
+
+median() {
+  local label=$1; shift
+  local times=()
+  for _ in $(seq "$RUNS"); do times+=("$(first_request "$@")"); done
+  printf '%-28s %6s ms  (runs: %s)\n' "$label" "$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")" "${times[*]}"
+}
+
+median "default" java -jar "$JAR"
+median "fast-startup" java -jar "$JAR" --spring.profiles.active=fast-startup
+median "fast-startup, unpacked" java -Xshare:off $CLASSPATH_ARG $MAIN --spring.profiles.active=fast-startup
+median "fast-startup + AppCDS" java -Xshare:auto -XX:SharedArchiveFile="$CDS/app.jsa" $CLASSPATH_ARG $MAIN \
+  --spring.profiles.active=fast-startup
@@ -0,0 +1,39 @@
+package cx.catapult.animals;
+
+import cx.catapult.animals.domain.Cat;
+import cx.catapult.animals.domain.Group;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic rows shaped like the seed data, with names and descriptions of typical length and groups stored
+ * the way the services write them.
+ */
+public final class Fixtures {
+
+    private static final Group[] GROUPS = Group.values();
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2020, 3, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    public static List<AnimalSummary> summaries(int size) {
+        List<AnimalSummary> summaries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            summaries.add(new AnimalSummary(100_000L + i, "Animal " + i, "Description of animal number " + i,
+                    GROUPS[i % GROUPS.length].name(), UPDATED));
+        }
+        return summaries;
+    }
+
+    public static List<Cat> cats(int size) {
+        List<Cat> cats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cats.add(new Cat(String.valueOf(100_000L + i), "Cat " + i, "Description of cat number " + i, Group.MAMMALS));
+        }
+        return cats;
+    }
+}
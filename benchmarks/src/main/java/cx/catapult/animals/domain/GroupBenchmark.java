@@ -0,0 +1,46 @@
+package cx.catapult.animals.domain;
+
+import cx.catapult.animals.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Group#toGroup(String)} runs once per row read, on the GROUP_NAME column as stored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int size;
+
+    private String[] values;
+
+    @Setup
+    public void setUp() {
+        values = Fixtures.summaries(size).stream().map(summary -> summary.getGroup()).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public void toGroup(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(Group.toGroup(value));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.Fixtures;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete style searches against an index of a million animals. "anim" and "nimal" match every row, so they
+ * show the cost of the candidate bound; "number 4242" and "mal 77777" narrow down through their rarer word.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchIndexBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    @Param({"a", "anim", "nimal", "number 4242", "mal 77777", "zebra"})
+    private String query;
+
+    private final SearchIndex index = new SearchIndex();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Fixtures.summaries(SIZE).forEach(index::put);
+    }
+
+    @Benchmark
+    public List<AnimalSummary> search() {
+        return index.search(query, 10);
+    }
+
+    @Benchmark
+    public void update() {
+        // Alternates every animal between two names so each call really changes the words of one entry.
+        int i = next++;
+        long id = 100_000L + i % SIZE;
+        index.update(id, (i / SIZE % 2 == 0 ? "Renamed " : "Animal ") + i % SIZE, "Description of animal number " + i % SIZE);
+    }
+}
@@ -0,0 +1,71 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.Fixtures;
+import cx.catapult.animals.domain.Cat;
+import cx.catapult.animals.domain.Horse;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row to domain mapping done by the services for every read, and ID parsing done for every request by ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int size;
+
+    private final CatsService catsService = new CatsService(null);
+    private final HorseService horseService = new HorseService(null);
+    private List<AnimalSummary> summaries;
+    private String[] ids;
+
+    @Setup
+    public void setUp() {
+        summaries = Fixtures.summaries(size);
+        ids = summaries.stream().map(summary -> summary.getId().toString()).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public List<Cat> catsConvertedList() {
+        return catsService.convertedList(summaries);
+    }
+
+    @Benchmark
+    public List<Horse> horsesConvertedList() {
+        return horseService.convertedList(summaries);
+    }
+
+    @Benchmark
+    public void convertToDomainObject(Blackhole blackhole) {
+        for (AnimalSummary summary : summaries) {
+            blackhole.consume(catsService.convertToDomainObject(summary));
+        }
+    }
+
+    @Benchmark
+    public void convertIdToLong(Blackhole blackhole) {
+        for (String id : ids) {
+            blackhole.consume(BaseService.convertIdToLong(id));
+        }
+    }
+}
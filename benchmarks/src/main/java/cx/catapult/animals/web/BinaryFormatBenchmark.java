@@ -0,0 +1,100 @@
+package cx.catapult.animals.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import cx.catapult.animals.Fixtures;
+import cx.catapult.animals.domain.AnimalPage;
+import cx.catapult.animals.domain.Cat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a {@code List<Cat>} collection body in each format the collection endpoints negotiate. JSON,
+ * CBOR and Smile use object mappers built the way Spring configures the ones behind its message converters, and
+ * Protobuf goes through the application's converter. The encoded size of each payload is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BinaryFormatBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String format;
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    private List<Cat> cats;
+    private AnimalProtobufHttpMessageConverter protobuf;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        cats = Fixtures.cats(size);
+        protobuf = new AnimalProtobufHttpMessageConverter();
+        if (format.equals("protobuf")) {
+            reader = new ProtobufMapper().readerFor(new TypeReference<AnimalPage<Cat>>() { })
+                    .with(AnimalProtobufHttpMessageConverter.schema());
+        } else {
+            ObjectMapper mapper = format.equals("cbor") ? Jackson2ObjectMapperBuilder.cbor().build()
+                    : format.equals("smile") ? Jackson2ObjectMapperBuilder.smile().build()
+                    : Jackson2ObjectMapperBuilder.json().build();
+            writer = mapper.writer();
+            reader = mapper.readerFor(new TypeReference<List<Cat>>() { });
+        }
+        encoded = encode();
+        System.out.printf("%n%s payload for %d cats: %d bytes%n", format, size, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (writer != null) {
+            return writer.writeValueAsBytes(cats);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HttpHeaders headers = new HttpHeaders();
+        protobuf.write(cats, List.class, null, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+        return body.toByteArray();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
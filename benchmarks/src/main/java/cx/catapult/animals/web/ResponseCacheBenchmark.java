@@ -0,0 +1,135 @@
+package cx.catapult.animals.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import cx.catapult.animals.Fixtures;
+import cx.catapult.animals.config.AnimalCaches;
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.domain.EncodedAnimal;
+import cx.catapult.animals.domain.Group;
+import cx.catapult.animals.domain.Horse;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work behind a single horse GET once the row is loaded: mapping it to the domain object and encoding the JSON
+ * body without compression, against looking the encoded body up in the response cache. Requests pick among
+ * {@code animals} IDs following Zipf's law, so a few IDs are hot and a response cache too small for every encoding
+ * misses on the long tail, encoding as the normal path does. The bytes the cache held and its hit ratio so far are
+ * printed after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseCacheBenchmark {
+
+    @Param({"100000"})
+    private int animals;
+
+    @Param({"1MB", "64MB"})
+    private String maximumSize;
+
+    @Param({"", "gzip"})
+    private String acceptEncoding;
+
+    private List<AnimalSummary> summaries;
+    private int[] requests;
+    private EncodedResponses plain;
+    private EncodedResponses responses;
+    private MeterRegistry meterRegistry;
+    private Cache<Long, EncodedAnimal> cache;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        summaries = Fixtures.summaries(animals);
+        requests = zipf(animals, 1 << 20);
+        plain = new EncodedResponses(Jackson2ObjectMapperBuilder.json().build(), new AnimalsProperties());
+        AnimalsProperties properties = new AnimalsProperties();
+        properties.getResponseCache().setEnabled(true);
+        properties.getResponseCache().setMaximumSize(DataSize.parse(maximumSize));
+        responses = new EncodedResponses(Jackson2ObjectMapperBuilder.json().build(), properties);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AnimalCaches(properties, meterRegistry).createResponseCache("HORSE");
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        if (cache.estimatedSize() == 0) {
+            return;
+        }
+        double hits = gets("hit");
+        double misses = gets("miss");
+        System.out.printf("%n%s cached in %d bytes, hit ratio %.3f%n", maximumSize,
+                (long) meterRegistry.get("animals.response.cache.size").gauge().value(), hits / (hits + misses));
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> encoded() {
+        return plain.ok(plain.encode(horse(nextSummary())), acceptEncoding);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> cached() {
+        AnimalSummary summary = nextSummary();
+        return responses.ok(cache.get(summary.getId(), id -> responses.encode(horse(summary))), acceptEncoding);
+    }
+
+    private AnimalSummary nextSummary() {
+        AnimalSummary summary = summaries.get(requests[next]);
+        next = (next + 1) & (requests.length - 1);
+        return summary;
+    }
+
+    /**
+     * @return a fixed sequence of indexes below {@code size}, index {@code k} drawn with a weight of {@code 1 / (k + 1)}
+     */
+    private static int[] zipf(int size, int length) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / (k + 1);
+            cumulative[k] = sum;
+        }
+        Random random = new Random(42);
+        int[] indexes = new int[length];
+        for (int i = 0; i < length; i++) {
+            int found = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            indexes[i] = Math.min(found >= 0 ? found : -found - 1, size - 1);
+        }
+        return indexes;
+    }
+
+    private static Horse horse(AnimalSummary summary) {
+        return new Horse(summary.getId(), summary.getName(), summary.getDescription(), Group.valueOf(summary.getGroup()),
+                summary.getUpdatedDate(), summary.getVersion());
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,82 @@
+package cx.catapult.animals.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cx.catapult.animals.Fixtures;
+import cx.catapult.animals.domain.Cat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a {@code Collection<Cat>} response body, with an object mapper configured the way
+ * Spring Boot configures the one used by the message converters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"1", "1000", "100000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Collection<Cat> cats;
+
+    @Setup
+    public void setUp() {
+        cats = Fixtures.cats(size);
+    }
+
+    /**
+     * Serializes into a byte array, as when the body is buffered before it is written.
+     */
+    @Benchmark
+    public byte[] writeValueAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(cats);
+    }
+
+    /**
+     * Serializes straight into the response stream, as the message converter does.
+     */
+    @Benchmark
+    public void writeValueToStream() throws IOException {
+        objectMapper.writeValue(DISCARD, cats);
+    }
+
+    /**
+     * Writes the same rows as newline delimited JSON, as the export endpoint does.
+     */
+    @Benchmark
+    public void writeNdJson() throws IOException {
+        NdJsonWriter writer = new NdJsonWriter(objectMapper, DISCARD);
+        cats.forEach(writer);
+        writer.flush();
+    }
+}
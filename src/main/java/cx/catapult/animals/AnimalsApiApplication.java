@@ -1,12 +1,22 @@
 package cx.catapult.animals;
 
+import cx.catapult.animals.config.FlywayMigration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class AnimalsApiApplication {
 
+	/**
+	 * Runs the API, or with {@code migrate} as the first argument only migrates the database and exits.
+	 */
 	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("migrate")) {
+			FlywayMigration.run(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
 		SpringApplication.run(AnimalsApiApplication.class, args);
 	}
 }
@@ -0,0 +1,73 @@
+package cx.catapult.animals.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cx.catapult.animals.domain.EncodedAnimal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Builds the per animal type read-through caches used by the services and registers their hit, miss and eviction
+ * metrics under the {@code cache.*} meters, tagged with {@code cache=<type>}.
+ */
+@Component
+@EnableConfigurationProperties(AnimalsProperties.class)
+public class AnimalCaches {
+
+    private final AnimalsProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public AnimalCaches(AnimalsProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return a cache for the animal type, or null when caching is not enabled for it
+     */
+    public <T> Cache<Long, T> create(String animalType) {
+        String name = animalType.toLowerCase(Locale.ROOT);
+        AnimalsProperties.CacheSettings settings = properties.getCache().get(name);
+        if (settings == null || !settings.isEnabled()) {
+            return null;
+        }
+        Cache<Long, T> cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * Monitored like the read-through caches as {@code cache=<type>.responses}, plus the bytes held as
+     * {@code animals.response.cache.size}.
+     *
+     * @return a cache of encoded responses for the animal type, or null when response caching is not enabled
+     */
+    public Cache<Long, EncodedAnimal> createResponseCache(String animalType) {
+        AnimalsProperties.ResponseCache settings = properties.getResponseCache();
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        String name = animalType.toLowerCase(Locale.ROOT);
+        Cache<Long, EncodedAnimal> cache = Caffeine.newBuilder()
+                .maximumWeight(settings.getMaximumSize().toBytes())
+                .weigher((Long id, EncodedAnimal encoded) -> encoded.size())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        // The weigher makes the eviction policy and its weighted size always present.
+        Gauge.builder("animals.response.cache.size", cache,
+                        responses -> responses.policy().eviction().get().weightedSize().getAsLong())
+                .baseUnit("bytes")
+                .tag("type", name)
+                .register(meterRegistry);
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, name + ".responses");
+    }
+}
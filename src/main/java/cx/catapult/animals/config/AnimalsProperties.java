@@ -0,0 +1,199 @@
+package cx.catapult.animals.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "animals")
+public class AnimalsProperties {
+
+    /**
+     * Read-through cache settings keyed by lower case animal type, e.g. {@code animals.cache.horse.enabled}.
+     */
+    private Map<String, CacheSettings> cache = new HashMap<>();
+
+    private ResponseCache responseCache = new ResponseCache();
+
+    private Async async = new Async();
+
+    private Reactive reactive = new Reactive();
+
+    private Limiter limiter = new Limiter();
+
+    private Replica replica = new Replica();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    private Stats stats = new Stats();
+
+    private Startup startup = new Startup();
+
+    private MultiGet multiGet = new MultiGet();
+
+    @Data
+    public static class CacheSettings {
+        private boolean enabled;
+        private long maximumSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class ResponseCache {
+        /**
+         * Keeps the encoded body of single animal GETs per animal type, so a hit skips loading, mapping and
+         * serialization. Entries are evicted when the animal is updated or deleted.
+         */
+        private boolean enabled;
+        /**
+         * Bound on the encoded bytes held per animal type.
+         */
+        private DataSize maximumSize = DataSize.ofMegabytes(64);
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+        /**
+         * Also keeps a gzipped copy for clients accepting gzip, wherever that is smaller than the plain body.
+         */
+        private boolean gzip = true;
+    }
+
+    @Data
+    public static class Async {
+        /**
+         * Runs controller service calls on a dedicated bounded executor instead of the servlet container thread.
+         */
+        private boolean enabled;
+        private int poolSize = 10;
+        private int queueCapacity = 100;
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Reactive {
+        /**
+         * R2DBC url of the animals schema, used by the {@code reactive} profile. Credentials come from
+         * {@code spring.datasource}.
+         */
+        private String url;
+        private int poolSize = 10;
+    }
+
+    @Data
+    public static class Limiter {
+        /**
+         * Sheds {@code /api/} requests above an adaptive in-flight limit with a 503.
+         */
+        private boolean enabled = true;
+        /**
+         * How far the short term latency may rise above the long term average before the limit starts shrinking.
+         */
+        private double tolerance = 1.5;
+        private double smoothing = 0.2;
+        private Limit read = new Limit(20, 5, 200);
+        private Limit write = new Limit(10, 2, 50);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Limit {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+    }
+
+    @Data
+    public static class Replica {
+        /**
+         * JDBC url of a read replica. When set, read-only transactions run on it and everything else on the
+         * {@code spring.datasource} primary. Credentials default to the primary's.
+         */
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+        /**
+         * How long a client keeps reading from the primary after its last write, so it sees its own changes while
+         * the replica catches up. Zero turns this off.
+         */
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class WriteBehind {
+        /**
+         * Queues creates and updates and writes them in batched transactions instead of one transaction per request.
+         */
+        private boolean enabled;
+        /**
+         * Pending creates plus distinct pending updates; repeated updates of one ID take a single slot.
+         */
+        private int capacity = 10_000;
+        private int batchSize = 500;
+        /**
+         * Longest a queued write waits for its batch to fill up.
+         */
+        private Duration flushInterval = Duration.ofMillis(50);
+        /**
+         * How long a write waits for room in a full queue before it is rejected with a 503.
+         */
+        private Duration enqueueTimeout = Duration.ofSeconds(1);
+        private Ack ack = Ack.FLUSH;
+    }
+
+    @Data
+    public static class Stats {
+        /**
+         * How often the per type and group counts are recounted from the store, correcting writes that bypassed the
+         * services or raced with the previous recount.
+         */
+        private Duration reconcileInterval = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Read straight from the environment by {@link StartupTimeline} and {@link StartupConfig}, which act before these
+     * properties are bound; listed here to document them.
+     */
+    @Data
+    public static class Startup {
+        /**
+         * Stops the JVM once the context is refreshed, for the image build to record the classes startup loads.
+         */
+        private boolean trainingRun;
+        /**
+         * Packages whose beans are created on first use when {@code spring.main.lazy-initialization} is on.
+         */
+        private List<String> lazyPackages = defaultLazyPackages();
+
+        static List<String> defaultLazyPackages() {
+            return new ArrayList<>(Collections.singletonList("org.springdoc"));
+        }
+    }
+
+    @Data
+    public static class MultiGet {
+        /**
+         * Most IDs a single {@code ?ids=} request may ask for. They are all looked up with one {@code IN} query, so
+         * this bounds the size of that query and of the response.
+         */
+        private int maxIds = 100;
+    }
+
+    public enum Ack {
+        /**
+         * Updates return once queued; a failed or unmatched update only shows in the
+         * {@code animals.write.behind.failed} meter. Creates still wait for their ID.
+         */
+        ENQUEUE,
+        /**
+         * Writes return once their batch has committed.
+         */
+        FLUSH
+    }
+}
@@ -0,0 +1,29 @@
+package cx.catapult.animals.config;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Runs the Flyway migrations with the {@code spring.flyway} settings of the application, and nothing else, for the
+ * {@code migrate} command. Deployments that migrate this way can leave {@code spring.flyway.enabled} off, as the
+ * {@code fast-startup} profile does, so instances no longer check the schema on every start.
+ * <p>
+ * Deliberately not a component, so the application itself never picks it up.
+ */
+@ImportAutoConfiguration(FlywayAutoConfiguration.class)
+public class FlywayMigration {
+
+    public static void run(String... args) {
+        String[] migrateArgs = Arrays.copyOf(args, args.length + 1);
+        migrateArgs[args.length] = "--spring.flyway.enabled=true";
+        // Flyway migrates while the context starts.
+        new SpringApplicationBuilder(FlywayMigration.class)
+                .web(WebApplicationType.NONE)
+                .run(migrateArgs)
+                .close();
+    }
+}
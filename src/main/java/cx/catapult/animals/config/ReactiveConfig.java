@@ -0,0 +1,79 @@
+package cx.catapult.animals.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cx.catapult.animals.domain.Cat;
+import cx.catapult.animals.domain.Horse;
+import cx.catapult.animals.repository.ReactiveAnimalRepository;
+import cx.catapult.animals.service.CatsService;
+import cx.catapult.animals.service.HorseService;
+import cx.catapult.animals.service.ReactiveAnimalService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import java.util.Arrays;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Wiring for the {@code reactive} profile: WebFlux on Netty with R2DBC access to the same schema the JDBC datasource
+ * points at. Flyway still migrates through the JDBC datasource on startup.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveConfig {
+
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /**
+     * Takes precedence over Tomcat, which is also on the classpath for the servlet stack.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(AnimalsProperties properties, DataSourceProperties dataSourceProperties) {
+        AnimalsProperties.Reactive reactive = properties.getReactive();
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(reactive.getUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, dataSourceProperties.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.getPassword())
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(reactive.getPoolSize())
+                .maxSize(reactive.getPoolSize())
+                .build());
+    }
+
+    @Bean
+    public ReactiveAnimalService<Cat> reactiveCatsService(ReactiveAnimalRepository animalRepository, CatsService catsService) {
+        return new ReactiveAnimalService<>(animalRepository, catsService);
+    }
+
+    @Bean
+    public ReactiveAnimalService<Horse> reactiveHorseService(ReactiveAnimalRepository animalRepository, HorseService horseService) {
+        return new ReactiveAnimalService<>(animalRepository, horseService);
+    }
+
+    /**
+     * Encodes {@code Flux} bodies one element at a time for the streaming media types, so collections and exports
+     * are written as rows arrive instead of being collected into a list first.
+     */
+    @Bean
+    public CodecCustomizer streamingJsonCodecCustomizer(ObjectMapper objectMapper) {
+        Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper,
+                MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), APPLICATION_NDJSON);
+        encoder.setStreamingMediaTypes(Arrays.asList(MediaType.APPLICATION_STREAM_JSON, APPLICATION_NDJSON));
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+    }
+}
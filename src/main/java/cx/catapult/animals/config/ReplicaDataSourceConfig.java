@@ -0,0 +1,83 @@
+package cx.catapult.animals.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the auto-configured datasource with a primary and a replica pool when {@code animals.replica.url} is set.
+ * The pools are published as {@code hikaricp.*} meters tagged {@code pool=primary|replica}.
+ * <p>
+ * The pools are deliberately not beans: every {@link DataSource} bean triggers Boot's datasource initializer, which
+ * asks for the primary datasource while it is still being created.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "animals.replica", name = "url")
+public class ReplicaDataSourceConfig implements DisposableBean {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, AnimalsProperties animalsProperties,
+                                 Environment environment, MeterRegistry meterRegistry) {
+        AnimalsProperties.Replica replicaProperties = animalsProperties.getReplica();
+        primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername() != null ? replicaProperties.getUsername() : properties.determineUsername())
+                .password(replicaProperties.getPassword() != null ? replicaProperties.getPassword() : properties.determinePassword())
+                .build();
+        replica.setPoolName(ReplicaRoutingDataSource.REPLICA);
+        replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replica);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Carries the read-your-writes decision over to the service executor threads.
+     */
+    @Bean
+    public TaskDecorator replicaRoutingTaskDecorator() {
+        return task -> {
+            boolean primaryRequired = ReplicaRoutingDataSource.isPrimaryRequired();
+            return () -> {
+                ReplicaRoutingDataSource.setPrimaryRequired(primaryRequired);
+                try {
+                    task.run();
+                } finally {
+                    ReplicaRoutingDataSource.setPrimaryRequired(false);
+                }
+            };
+        };
+    }
+
+    @Override
+    public void destroy() {
+        primary.close();
+        replica.close();
+    }
+}
@@ -0,0 +1,31 @@
+package cx.catapult.animals.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+@Configuration
+public class StartupConfig {
+
+    static final String LAZY_PACKAGES = "animals.startup.lazy-packages";
+
+    /**
+     * Applies once {@code spring.main.lazy-initialization} is on, as in the {@code fast-startup} profile. Keeps every
+     * bean eager except those from the packages listed in {@code animals.startup.lazy-packages}, so the first request
+     * pays for nothing but what it uses from those. Binds the property itself, since the filter is created before
+     * {@link AnimalsProperties} can be bound.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerUnlessInLazyPackages(Environment environment) {
+        List<String> lazyPackages = Binder.get(environment)
+                .bind(LAZY_PACKAGES, Bindable.listOf(String.class))
+                .orElseGet(AnimalsProperties.Startup::defaultLazyPackages);
+        return (beanName, definition, type) ->
+                type == null || lazyPackages.stream().noneMatch(lazy -> type.getName().startsWith(lazy + "."));
+    }
+}
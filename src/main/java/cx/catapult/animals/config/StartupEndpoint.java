@@ -0,0 +1,24 @@
+package cx.catapult.animals.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves the {@link StartupTimeline} at {@code /actuator/startup}.
+ */
+@Component
+@Endpoint(id = "startup")
+public class StartupEndpoint {
+
+    private final StartupTimeline timeline;
+
+    public StartupEndpoint(StartupTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    @ReadOperation
+    public StartupTimeline.Report timeline() {
+        return timeline.report();
+    }
+}
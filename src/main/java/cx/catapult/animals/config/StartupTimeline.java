@@ -0,0 +1,148 @@
+package cx.catapult.animals.config;
+
+import lombok.Value;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Records when each startup phase of the application was reached, counted from the start of the JVM, and how long
+ * the slowest beans took to create, served by the {@code startup} actuator endpoint. Registered through
+ * {@code META-INF/spring.factories} so it sees the phases before the context exists, and added to the context as a
+ * bean once it is prepared.
+ * <p>
+ * With {@code animals.startup.training-run} the JVM stops as soon as the context is refreshed, before the
+ * application reads from the database or takes requests, so the image build can record the classes startup loads
+ * for its AppCDS archive without a database.
+ */
+public class StartupTimeline implements ApplicationListener<ApplicationEvent>, Ordered {
+
+    static final String TRAINING_RUN = "animals.startup.training-run";
+    private static final int SLOWEST_BEANS = 20;
+
+    private final long jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> creating = new ConcurrentHashMap<>();
+    private final List<BeanTiming> beans = new CopyOnWriteArrayList<>();
+    private final IntConsumer halt;
+    private boolean trainingRun;
+
+    public StartupTimeline() {
+        this(Runtime.getRuntime()::halt);
+    }
+
+    StartupTimeline(IntConsumer halt) {
+        this.halt = halt;
+    }
+
+    /**
+     * Ahead of the application's own listeners, so a training run stops before any of them touches the database.
+     */
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ApplicationStartingEvent) {
+            reached("starting");
+        } else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            reached("environmentPrepared");
+            trainingRun = ((ApplicationEnvironmentPreparedEvent) event).getEnvironment()
+                    .getProperty(TRAINING_RUN, Boolean.class, false);
+        } else if (event instanceof ApplicationPreparedEvent) {
+            reached("contextPrepared");
+            ConfigurableApplicationContext context = ((ApplicationPreparedEvent) event).getApplicationContext();
+            context.getBeanFactory().registerSingleton("startupTimeline", this);
+            context.getBeanFactory().addBeanPostProcessor(new BeanTimer());
+        } else if (event instanceof ContextRefreshedEvent) {
+            reached("contextRefreshed");
+            if (trainingRun) {
+                // Closing the context from inside its refresh would deadlock, and there is nothing to clean up yet.
+                halt.accept(0);
+            }
+        } else if (event instanceof WebServerInitializedEvent) {
+            reached("webServerStarted");
+        } else if (event instanceof ApplicationStartedEvent) {
+            reached("started");
+        } else if (event instanceof ApplicationReadyEvent) {
+            reached("ready");
+        }
+    }
+
+    public Report report() {
+        List<BeanTiming> slowest = beans.stream()
+                .sorted(Comparator.comparingLong(BeanTiming::getMillis).reversed())
+                .limit(SLOWEST_BEANS)
+                .collect(Collectors.toList());
+        return new Report(jvmStartTime, new ArrayList<>(phases), slowest);
+    }
+
+    private void reached(String phase) {
+        phases.add(new Phase(phase, System.currentTimeMillis() - jvmStartTime));
+    }
+
+    /**
+     * Times each bean from instantiation to the end of its initialization. Beans it depends on are created
+     * meanwhile, so the time includes theirs when they were not created before.
+     */
+    private final class BeanTimer implements InstantiationAwareBeanPostProcessor {
+
+        @Override
+        public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+            creating.put(beanName, System.nanoTime());
+            return null;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            Long started = creating.remove(beanName);
+            if (started != null) {
+                beans.add(new BeanTiming(beanName, (System.nanoTime() - started) / 1_000_000));
+            }
+            return bean;
+        }
+    }
+
+    @Value
+    public static class Report {
+        long jvmStartTime;
+        /**
+         * Phases in the order they were reached, each with the milliseconds since the JVM started.
+         */
+        List<Phase> phases;
+        List<BeanTiming> slowestBeans;
+    }
+
+    @Value
+    public static class Phase {
+        String name;
+        long millis;
+    }
+
+    @Value
+    public static class BeanTiming {
+        String name;
+        long millis;
+    }
+}
@@ -0,0 +1,36 @@
+package cx.catapult.animals.config;
+
+import cx.catapult.animals.web.AnimalProtobufHttpMessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+@Configuration
+@ConditionalOnWebApplication(type = SERVLET)
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AnimalsProperties properties;
+
+    public WebConfig(AnimalsProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Picked up by Spring Boot next to the JSON, CBOR and Smile converters Jackson provides.
+     */
+    @Bean
+    public AnimalProtobufHttpMessageConverter animalProtobufHttpMessageConverter() throws IOException {
+        return new AnimalProtobufHttpMessageConverter();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(properties.getAsync().getTimeout().toMillis());
+    }
+}
@@ -1,11 +1,17 @@
 package cx.catapult.animals.domain;
 
+import java.time.LocalDateTime;
+
 public interface Animal {
 
     String getId();
 
     void setId(String id);
 
+    long getNumericId();
+
+    void setNumericId(long numericId);
+
     String getName();
 
     void setName(String name);
@@ -16,4 +22,12 @@ public interface Animal {
 
     Group getGroup();
 
+    LocalDateTime getUpdatedDate();
+
+    void setUpdatedDate(LocalDateTime updatedDate);
+
+    Long getVersion();
+
+    void setVersion(Long version);
+
 }
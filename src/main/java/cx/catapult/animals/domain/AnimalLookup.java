@@ -0,0 +1,28 @@
+package cx.catapult.animals.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The result of looking up one of several requested IDs, in the order they were requested.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnimalLookup<T extends Animal> {
+
+    /**
+     * The ID as requested.
+     */
+    private String id;
+    private boolean found;
+    /**
+     * The animal, or null when none of this type has the ID.
+     */
+    private T animal;
+
+    public static <T extends Animal> AnimalLookup<T> of(String id, T animal) {
+        return new AnimalLookup<>(id, animal != null, animal);
+    }
+}
@@ -0,0 +1,21 @@
+package cx.catapult.animals.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnimalPage<T extends Animal> {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private List<T> items;
+    /**
+     * Opaque cursor to pass as {@code after} to fetch the next page, or null on the last page.
+     */
+    private String next;
+}
@@ -0,0 +1,30 @@
+package cx.catapult.animals.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnimalStats {
+
+    private long total;
+    /**
+     * Counts keyed by animal type, e.g. {@code CAT}.
+     */
+    private Map<String, TypeStats> types;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TypeStats {
+        private long total;
+        /**
+         * Counts keyed by group, leaving out groups without animals.
+         */
+        private Map<String, Long> groups;
+    }
+}
@@ -1,9 +1,12 @@
 package cx.catapult.animals.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 import javax.validation.constraints.NotBlank;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 
 @Data
 public class BaseAnimal implements Animal, Serializable {
@@ -11,21 +14,75 @@ public class BaseAnimal implements Animal, Serializable {
     public static final String CAT_STRING = "CAT";
     public static final String HORSE_STRING = "HORSE";
 
-    private String id;
+    /**
+     * Kept as a primitive so mapping rows allocates no ID objects; 0 means not stored yet.
+     */
+    @JsonIgnore
+    private long numericId;
     @NotBlank(message = "Name cannot be null or empty")
     private String name;
     @NotBlank(message = "Description cannot be null or empty")
     private String description;
     private Group group;
+    @JsonIgnore
+    private LocalDateTime updatedDate;
+    /**
+     * The version the animal was read at, null when unknown. An update of an animal carrying a version only applies
+     * while the stored row is still at that version.
+     */
+    @JsonIgnore
+    private Long version;
 
     public BaseAnimal(String name, String description, Group group) {
         this(null, name, description, group);
     }
 
     public BaseAnimal(String id, String name, String description, Group group) {
-        this.id = id;
+        this(parseId(id), name, description, group, null, null);
+    }
+
+    public BaseAnimal(long numericId, String name, String description, Group group, LocalDateTime updatedDate,
+                      Long version) {
+        this.numericId = numericId;
         this.name = name;
         this.description = description;
         this.group = group;
+        this.updatedDate = updatedDate;
+        this.version = version;
+    }
+
+    /**
+     * The ID as it appears in JSON and URLs, null when the animal has not been stored yet.
+     */
+    @Override
+    @JsonProperty("id")
+    public String getId() {
+        return numericId == 0 ? null : Long.toString(numericId);
+    }
+
+    @Override
+    @JsonProperty("id")
+    public void setId(String id) {
+        this.numericId = parseId(id);
+    }
+
+    /**
+     * Parses an ID without throwing.
+     *
+     * @return the ID, or 0 when it is missing, not a positive decimal number or out of range
+     */
+    public static long parseId(String id) {
+        if (id == null || id.isEmpty()) {
+            return 0;
+        }
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            int digit = id.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                return 0;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
     }
 }
@@ -2,6 +2,8 @@ package cx.catapult.animals.domain;
 
 import lombok.Builder;
 
+import java.time.LocalDateTime;
+
 public class Cat extends BaseAnimal {
     public Cat() {
         this("", "");
@@ -15,4 +17,8 @@ public class Cat extends BaseAnimal {
     public Cat(String name, String description) {
         super(name, description, Group.MAMMALS);
     }
+
+    public Cat(long id, String name, String description, Group group, LocalDateTime updatedDate, Long version) {
+        super(id, name, description, group, updatedDate, version);
+    }
 }
@@ -0,0 +1,26 @@
+package cx.catapult.animals.domain;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * A single animal response encoded once so it can be served many times: the body, and the headers that go with it,
+ * validators of the version it was encoded from included, already rendered.
+ */
+@Value
+public class EncodedAnimal {
+    Map<String, String> headers;
+    byte[] body;
+    /**
+     * The body gzipped, or null when pre-compression is off or would not make it smaller.
+     */
+    byte[] gzippedBody;
+
+    /**
+     * @return the bytes held by the encoded bodies, which is what bounds the response cache
+     */
+    public int size() {
+        return body.length + (gzippedBody == null ? 0 : gzippedBody.length);
+    }
+}
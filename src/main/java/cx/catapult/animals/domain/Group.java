@@ -1,6 +1,8 @@
 package cx.catapult.animals.domain;
 
-import static java.util.Arrays.stream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 public enum Group {
 
@@ -11,11 +13,27 @@ public enum Group {
     MAMMALS,
     REPTILES;
 
+    private static final Map<String, Group> BY_NAME = new HashMap<>();
+
+    static {
+        for (Group group : values()) {
+            BY_NAME.put(group.name(), group);
+        }
+    }
+
+    /**
+     * Decodes a stored group name. Names are written in upper case, so the common case is a single lookup without
+     * allocating; other spellings fall back to an upper case copy.
+     */
     public static Group toGroup(String value) throws IllegalArgumentException {
-        return stream(values())
-                .filter(group -> group.name().equalsIgnoreCase(value))
-                .findAny()
-                .orElseThrow(() -> new IllegalArgumentException(value));
+        Group group = BY_NAME.get(value);
+        if (group == null && value != null) {
+            group = BY_NAME.get(value.toUpperCase(Locale.ROOT));
+        }
+        if (group == null) {
+            throw new IllegalArgumentException(value);
+        }
+        return group;
     }
 
 }
@@ -2,6 +2,8 @@ package cx.catapult.animals.domain;
 
 import lombok.Builder;
 
+import java.time.LocalDateTime;
+
 public class Horse extends BaseAnimal {
     public Horse() {
         this("", "");
@@ -15,4 +17,8 @@ public class Horse extends BaseAnimal {
     public Horse(String id, String name, String description, Group group) {
         super(id, name, description, group);
     }
+
+    public Horse(long id, String name, String description, Group group, LocalDateTime updatedDate, Long version) {
+        super(id, name, description, group, updatedDate, version);
+    }
 }
@@ -2,6 +2,7 @@ package cx.catapult.animals.exception;
 
 import cx.catapult.animals.domain.ApiError;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -9,10 +10,13 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.springframework.core.Ordered.HIGHEST_PRECEDENCE;
 
@@ -28,6 +32,13 @@ public class ApiExceptionHandler {
         return ResponseEntity.badRequest().body(apiError);
     }
 
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiError> handleWebExchangeBindException(
+            WebExchangeBindException ex) {
+        ApiError apiError = getApiError(ex.getFieldErrors().get(0).getDefaultMessage());
+        return ResponseEntity.badRequest().body(apiError);
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ApiError> handleConstraintViolationException(
             ConstraintViolationException ex) {
@@ -43,6 +54,41 @@ public class ApiExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiError);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> handlePreconditionFailedException(
+            PreconditionFailedException ex) {
+        ApiError apiError = getApiError(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(apiError);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ApiError> handleInvalidRequestException(
+            InvalidRequestException ex) {
+        ApiError apiError = getApiError(ex.getMessage());
+        return ResponseEntity.badRequest().body(apiError);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiError> handleRejectedExecutionException(
+            RejectedExecutionException ex) {
+        ApiError apiError = getApiError("Service is busy, please retry");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(apiError);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloadedException(
+            ServiceOverloadedException ex) {
+        ApiError apiError = getApiError(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(apiError);
+    }
+
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ApiError> handleAsyncRequestTimeoutException(
+            AsyncRequestTimeoutException ex) {
+        ApiError apiError = getApiError("Request timed out");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(apiError);
+    }
+
     private ApiError getApiError(String message) {
         ApiError apiError = new ApiError();
         apiError.setMessage(message);
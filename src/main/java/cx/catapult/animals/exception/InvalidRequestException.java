@@ -0,0 +1,9 @@
+package cx.catapult.animals.exception;
+
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+}
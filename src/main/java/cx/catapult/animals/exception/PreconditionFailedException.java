@@ -0,0 +1,10 @@
+package cx.catapult.animals.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    private static final String MESSAGE = "Record has been changed since it was read";
+
+    public PreconditionFailedException() {
+        super(MESSAGE);
+    }
+
+}
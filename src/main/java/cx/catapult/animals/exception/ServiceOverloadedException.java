@@ -0,0 +1,9 @@
+package cx.catapult.animals.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+
+}
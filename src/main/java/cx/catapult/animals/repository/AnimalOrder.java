@@ -0,0 +1,16 @@
+package cx.catapult.animals.repository;
+
+/**
+ * Orders the list queries can return animals in. Each is served by an index starting with {@code ANIMAL_TYPE}, so
+ * neither needs a sort of the whole type.
+ */
+public enum AnimalOrder {
+    /**
+     * ID order, which is creation order since IDs are assigned on insert.
+     */
+    CREATED,
+    /**
+     * Name order, ties broken by ID.
+     */
+    NAME
+}
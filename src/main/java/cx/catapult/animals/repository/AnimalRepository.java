@@ -1,12 +1,62 @@
 package cx.catapult.animals.repository;
 
+import cx.catapult.animals.repository.entity.AnimalCount;
 import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface AnimalRepository extends JpaRepository<AnimalEntity, Long> {
-    List<AnimalEntity> findByAnimalType(String animalType);
+public interface AnimalRepository extends JpaRepository<AnimalEntity, Long>, AnimalRepositoryCustom, AnimalStore {
+    String SUMMARY = "select new cx.catapult.animals.repository.entity.AnimalSummary(a.id, a.name, a.description, a.group)"
+            + " from AnimalEntity a";
+    String DETAIL = "select new cx.catapult.animals.repository.entity.AnimalSummary(a.id, a.name, a.description, a.group,"
+            + " a.updatedDate, a.version) from AnimalEntity a";
+    /**
+     * Bulk updates bypass {@code @Version}, so the version is bumped by hand.
+     */
+    String UPDATE = "update AnimalEntity a set a.name = :name, a.description = :description, a.updatedDate = :updatedDate,"
+            + " a.version = a.version + 1";
+
+    /**
+     * Redeclared so the {@link AnimalStore}, {@link AnimalRepositoryCustom} and {@link JpaRepository} variants
+     * resolve to a single method, the one of {@link AnimalRepositoryImpl}.
+     */
+    @Override
+    <S extends AnimalEntity> S save(S entity);
+
+    @QueryHints({@QueryHint(name = HINT_READONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT")})
+    @Query(SUMMARY + " where a.animalType = :animalType order by a.id")
+    List<AnimalSummary> findSummariesByAnimalType(@Param("animalType") String animalType);
+
+    @QueryHints({@QueryHint(name = HINT_READONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT")})
+    @Query(SUMMARY + " where a.animalType = :animalType and a.id > :id order by a.id")
+    List<AnimalSummary> findSummariesByAnimalTypeAndIdGreaterThan(@Param("animalType") String animalType, @Param("id") Long id,
+                                                                  Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT")})
+    @Query(DETAIL + " where a.animalType = :animalType and a.id = :id")
+    Optional<AnimalSummary> findSummaryById(@Param("animalType") String animalType, @Param("id") Long id);
+
+    @QueryHints({@QueryHint(name = HINT_READONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT")})
+    @Query(DETAIL + " where a.animalType = :animalType and a.id in :ids")
+    List<AnimalSummary> findSummariesByAnimalTypeAndIdIn(@Param("animalType") String animalType,
+                                                        @Param("ids") Collection<Long> ids);
+
+    @QueryHints({@QueryHint(name = HINT_READONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT")})
+    @Query("select new cx.catapult.animals.repository.entity.AnimalCount(a.animalType, a.group, count(a))"
+            + " from AnimalEntity a group by a.animalType, a.group")
+    List<AnimalCount> countByAnimalTypeAndGroup();
 }
@@ -0,0 +1,73 @@
+package cx.catapult.animals.repository;
+
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Every write here bumps the type's row in {@code animal_type_version_tbl} in the same transaction when it touches
+ * any animal, so the collection version is a single primary-key read that no commit can get ahead of.
+ */
+public interface AnimalRepositoryCustom {
+
+    /**
+     * Streams every animal of the given type in ID order over a server-side cursor. Rows are read as unmanaged
+     * summaries so the persistence context does not grow with the result set. Must be called in a transaction and
+     * the stream must be closed.
+     */
+    Stream<AnimalSummary> streamByAnimalType(String animalType);
+
+    /**
+     * Built with the Criteria API since the group filter and the keyset condition are optional. Served by
+     * {@code IDX_ANIMAL_TYPE_GROUP_ID} or {@code IDX_ANIMAL_TYPE_ID} in created order and by
+     * {@code IDX_ANIMAL_TYPE_NAME} in name order, whose implicit trailing ID breaks ties.
+     */
+    List<AnimalSummary> findSummaries(String animalType, String group, AnimalOrder order, AnimalSummary after, int limit);
+
+    /**
+     * Reads the type's version row by primary key, 0 when nothing of the type has been written yet.
+     */
+    long findCollectionVersion(String animalType);
+
+    /**
+     * Updates the name and description in a single UPDATE statement.
+     */
+    int updateNameAndDescription(String animalType, Long id, String name, String description, LocalDateTime updatedDate);
+
+    /**
+     * Updates the name and description in a single UPDATE statement that only matches the row at the given version.
+     */
+    int updateNameAndDescriptionIfVersion(String animalType, Long id, long version, String name, String description,
+                                          LocalDateTime updatedDate);
+
+    /**
+     * Built per call so the UPDATE names only the columns that change, which keeps the binlog row images small.
+     */
+    int patchIfVersion(String animalType, Long id, long version, String name, String description,
+                       LocalDateTime updatedDate);
+
+    /**
+     * Updates the animals with a single JDBC batch. With rewriteBatchedStatements the driver sends the UPDATEs as one
+     * multi-statement round trip.
+     */
+    int[] updateAll(List<AnimalEntity> animals);
+
+    /**
+     * Deletes the animal in a single DELETE statement, without loading it first.
+     */
+    int deleteAnimalById(String animalType, Long id);
+
+    /**
+     * Persists the new animal, whose generated ID is set on it straight away.
+     */
+    <S extends AnimalEntity> S save(S animal);
+
+    /**
+     * Inserts the animals with a single JDBC batch and returns their generated IDs in the same order. IDs stay
+     * database assigned; with rewriteBatchedStatements the driver sends multi-row INSERTs and derives the keys.
+     */
+    List<Long> insertAll(List<AnimalEntity> animals);
+}
@@ -0,0 +1,259 @@
+package cx.catapult.animals.repository;
+
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AnimalRepositoryImpl implements AnimalRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO animal_tbl "
+            + "(CREATED_DATE, UPDATED_DATE, NAME, DESCRIPTION, GROUP_NAME, ANIMAL_TYPE) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE animal_tbl SET NAME = ?, DESCRIPTION = ?, UPDATED_DATE = ?, VERSION = VERSION + 1"
+            + " WHERE ID = ? AND ANIMAL_TYPE = ?";
+    private static final String VERSION_SQL = "SELECT VERSION FROM animal_type_version_tbl WHERE ANIMAL_TYPE = ?";
+    /**
+     * Upserts, so a type gets its row on its first write without a separate seeding step.
+     */
+    private static final String BUMP_VERSION_SQL = "INSERT INTO animal_type_version_tbl (ANIMAL_TYPE, VERSION) VALUES (?, 1)"
+            + " ON DUPLICATE KEY UPDATE VERSION = VERSION + 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${animals.export.fetch-size}")
+    private int fetchSize;
+
+    @Override
+    public Stream<AnimalSummary> streamByAnimalType(String animalType) {
+        return entityManager
+                .createQuery(AnimalRepository.SUMMARY + " where a.animalType = :animalType order by a.id", AnimalSummary.class)
+                .setParameter("animalType", animalType)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<AnimalSummary> findSummaries(String animalType, String group, AnimalOrder order, AnimalSummary after,
+                                             int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AnimalSummary> query = cb.createQuery(AnimalSummary.class);
+        Root<AnimalEntity> a = query.from(AnimalEntity.class);
+        Path<Long> id = a.get("id");
+        Path<String> name = a.get("name");
+        query.select(cb.construct(AnimalSummary.class, id, name, a.get("description"), a.get("group")));
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(a.get("animalType"), animalType));
+        if (group != null) {
+            where.add(cb.equal(a.get("group"), group));
+        }
+        if (order == AnimalOrder.NAME) {
+            if (after != null) {
+                where.add(cb.or(cb.greaterThan(name, after.getName()),
+                        cb.and(cb.equal(name, after.getName()), cb.greaterThan(id, after.getId()))));
+            }
+            query.orderBy(cb.asc(name), cb.asc(id));
+        } else {
+            if (after != null) {
+                where.add(cb.greaterThan(id, after.getId()));
+            }
+            query.orderBy(cb.asc(id));
+        }
+        query.where(where.toArray(new Predicate[0]));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultList();
+    }
+
+    @Override
+    public long findCollectionVersion(String animalType) {
+        List<?> versions = entityManager.createNativeQuery(VERSION_SQL)
+                .setParameter(1, animalType)
+                .setHint(QueryHints.HINT_FLUSH_MODE, FlushModeType.COMMIT)
+                .getResultList();
+        return versions.isEmpty() ? 0 : ((Number) versions.get(0)).longValue();
+    }
+
+    @Override
+    @Transactional
+    public int updateNameAndDescription(String animalType, Long id, String name, String description,
+                                        LocalDateTime updatedDate) {
+        return bumpVersion(animalType, entityManager.createQuery(AnimalRepository.UPDATE
+                + " where a.animalType = :animalType and a.id = :id")
+                .setParameter("name", name)
+                .setParameter("description", description)
+                .setParameter("updatedDate", updatedDate)
+                .setParameter("animalType", animalType)
+                .setParameter("id", id)
+                .executeUpdate());
+    }
+
+    @Override
+    @Transactional
+    public int updateNameAndDescriptionIfVersion(String animalType, Long id, long version, String name,
+                                                 String description, LocalDateTime updatedDate) {
+        return bumpVersion(animalType, entityManager.createQuery(AnimalRepository.UPDATE
+                + " where a.animalType = :animalType and a.id = :id and a.version = :version")
+                .setParameter("name", name)
+                .setParameter("description", description)
+                .setParameter("updatedDate", updatedDate)
+                .setParameter("animalType", animalType)
+                .setParameter("id", id)
+                .setParameter("version", version)
+                .executeUpdate());
+    }
+
+    @Override
+    @Transactional
+    public int deleteAnimalById(String animalType, Long id) {
+        return bumpVersion(animalType, entityManager
+                .createQuery("delete from AnimalEntity a where a.animalType = :animalType and a.id = :id")
+                .setParameter("animalType", animalType)
+                .setParameter("id", id)
+                .executeUpdate());
+    }
+
+    @Override
+    @Transactional
+    public <S extends AnimalEntity> S save(S animal) {
+        // The ID is generated by the INSERT, so persist writes the row before the version is bumped.
+        entityManager.persist(animal);
+        bumpVersions(Collections.singleton(animal.getAnimalType()));
+        return animal;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> insertAll(List<AnimalEntity> animals) {
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (AnimalEntity animal : animals) {
+                    statement.setTimestamp(1, now);
+                    statement.setTimestamp(2, now);
+                    statement.setString(3, animal.getName());
+                    statement.setString(4, animal.getDescription());
+                    statement.setString(5, animal.getGroup());
+                    statement.setString(6, animal.getAnimalType());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> generated = new ArrayList<>(animals.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        generated.add(keys.getLong(1));
+                    }
+                }
+                return generated;
+            }
+        });
+        bumpVersions(animals.stream().map(AnimalEntity::getAnimalType).collect(Collectors.toList()));
+        return ids;
+    }
+
+    @Override
+    @Transactional
+    public int patchIfVersion(String animalType, Long id, long version, String name, String description,
+                              LocalDateTime updatedDate) {
+        StringBuilder update = new StringBuilder("update AnimalEntity a set a.updatedDate = :updatedDate, a.version = a.version + 1");
+        if (name != null) {
+            update.append(", a.name = :name");
+        }
+        if (description != null) {
+            update.append(", a.description = :description");
+        }
+        update.append(" where a.animalType = :animalType and a.id = :id and a.version = :version");
+        Query query = entityManager.createQuery(update.toString())
+                .setParameter("updatedDate", updatedDate)
+                .setParameter("animalType", animalType)
+                .setParameter("id", id)
+                .setParameter("version", version);
+        if (name != null) {
+            query.setParameter("name", name);
+        }
+        if (description != null) {
+            query.setParameter("description", description);
+        }
+        return bumpVersion(animalType, query.executeUpdate());
+    }
+
+    @Override
+    @Transactional
+    public int[] updateAll(List<AnimalEntity> animals) {
+        int[] rows = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                AnimalEntity animal = animals.get(i);
+                statement.setString(1, animal.getName());
+                statement.setString(2, animal.getDescription());
+                statement.setTimestamp(3, Timestamp.valueOf(animal.getUpdatedDate()));
+                statement.setLong(4, animal.getId());
+                statement.setString(5, animal.getAnimalType());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return animals.size();
+            }
+        });
+        List<String> updatedTypes = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            // SUCCESS_NO_INFO is negative, so only rows known to be missed are left out.
+            if (rows[i] != 0) {
+                updatedTypes.add(animals.get(i).getAnimalType());
+            }
+        }
+        bumpVersions(updatedTypes);
+        return rows;
+    }
+
+    private int bumpVersion(String animalType, int rows) {
+        if (rows > 0) {
+            bumpVersions(Collections.singleton(animalType));
+        }
+        return rows;
+    }
+
+    /**
+     * Bumps each type once, in name order so concurrent writes to several types lock the version rows in the same
+     * order.
+     */
+    private void bumpVersions(Collection<String> animalTypes) {
+        for (String animalType : new TreeSet<>(animalTypes)) {
+            jdbcTemplate.update(BUMP_VERSION_SQL, animalType);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package cx.catapult.animals.repository;
+
+import cx.catapult.animals.repository.entity.AnimalCount;
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The storage operations the services rely on. Implemented by the JPA {@link AnimalRepository} over MySQL and, in
+ * the {@code memory} profile, by {@link cx.catapult.animals.repository.memory.InMemoryAnimalStore}. Both must behave
+ * the same: list queries return rows in ID order without the updated date, and the write methods report how many
+ * rows they touched rather than throwing for a missing ID. Lookups and writes by ID only match animals of the given
+ * type, so an ID of another type is as missing as an unknown one.
+ */
+public interface AnimalStore {
+
+    List<AnimalSummary> findSummariesByAnimalType(String animalType);
+
+    List<AnimalSummary> findSummariesByAnimalTypeAndIdGreaterThan(String animalType, Long id, Pageable pageable);
+
+    /**
+     * Lists animals of the type in the given order, only those of {@code group} unless it is null, continuing after
+     * {@code after} unless it is null. Only the ID of {@code after} and, in name order, its name are used.
+     */
+    List<AnimalSummary> findSummaries(String animalType, String group, AnimalOrder order, AnimalSummary after, int limit);
+
+    Optional<AnimalSummary> findSummaryById(String animalType, Long id);
+
+    /**
+     * Finds the animals of the type among the given IDs, with their updated date and version as by
+     * {@link #findSummaryById}, in no particular order. IDs with no such animal are left out.
+     */
+    List<AnimalSummary> findSummariesByAnimalTypeAndIdIn(String animalType, Collection<Long> ids);
+
+    /**
+     * Counts every animal by type and group. Reads the whole table, so it is meant for background jobs rather than
+     * requests.
+     */
+    List<AnimalCount> countByAnimalTypeAndGroup();
+
+    /**
+     * Reads the version of the type's collection, which every write below that touches an animal of the type bumps
+     * along with it, so every instance sharing the store hands out the same version for the same rows.
+     *
+     * @return the version, 0 while nothing of the type has been written
+     */
+    long findCollectionVersion(String animalType);
+
+    /**
+     * @return the number of matched rows, 0 when no animal of the type has the ID
+     */
+    int updateNameAndDescription(String animalType, Long id, String name, String description, LocalDateTime updatedDate);
+
+    /**
+     * Like {@link #updateNameAndDescription} but only while the animal is still at {@code version}, checked by the
+     * update itself rather than a read before it. Every update bumps the version.
+     *
+     * @return the number of matched rows, 0 when no animal of the type has the ID or it is at another version
+     */
+    int updateNameAndDescriptionIfVersion(String animalType, Long id, long version, String name, String description,
+                                          LocalDateTime updatedDate);
+
+    /**
+     * Writes only the columns given, keeping the stored name or description where it is passed as null, while the
+     * animal is still at {@code version}. The updated date is set and the version bumped as by every update.
+     *
+     * @return the number of matched rows, 0 when no animal of the type has the ID or it is at another version
+     */
+    int patchIfVersion(String animalType, Long id, long version, String name, String description,
+                       LocalDateTime updatedDate);
+
+    /**
+     * Sets the name, description and updated date of each animal by type and ID in one batch, whatever its version.
+     *
+     * @return the number of matched rows per animal, in the same order
+     */
+    int[] updateAll(List<AnimalEntity> animals);
+
+    /**
+     * @return the number of deleted rows, 0 when no animal of the type has the ID
+     */
+    int deleteAnimalById(String animalType, Long id);
+
+    /**
+     * Inserts a new animal and sets its generated ID on it.
+     */
+    <S extends AnimalEntity> S save(S animal);
+
+    /**
+     * Inserts the animals and returns their generated IDs in the same order.
+     */
+    List<Long> insertAll(List<AnimalEntity> animals);
+
+    /**
+     * Streams every animal of the given type in ID order. Must be called in a transaction and the stream must be
+     * closed.
+     */
+    Stream<AnimalSummary> streamByAnimalType(String animalType);
+}
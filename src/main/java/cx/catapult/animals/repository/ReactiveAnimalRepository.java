@@ -0,0 +1,222 @@
+package cx.catapult.animals.repository;
+
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.r2dbc.connectionfactory.R2dbcTransactionManager;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * R2DBC access to {@code animal_tbl} for the reactive profile, mirroring the queries of {@link AnimalRepository}.
+ * Row queries are emitted as they are decoded, so subscribers pull rows from the socket at their own pace. Writes bump
+ * the type's collection version in the same transaction, as the JPA store does.
+ */
+@Repository
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveAnimalRepository {
+
+    private static final String SUMMARY = "SELECT ID, NAME, DESCRIPTION, GROUP_NAME FROM animal_tbl";
+    private static final String DETAIL = "SELECT ID, NAME, DESCRIPTION, GROUP_NAME, UPDATED_DATE, VERSION FROM animal_tbl";
+    private static final String UPDATE = "UPDATE animal_tbl SET NAME = :name, DESCRIPTION = :description,"
+            + " UPDATED_DATE = :updatedDate, VERSION = VERSION + 1";
+    private static final String BUMP_VERSION = "INSERT INTO animal_type_version_tbl (ANIMAL_TYPE, VERSION)"
+            + " VALUES (:animalType, 1) ON DUPLICATE KEY UPDATE VERSION = VERSION + 1";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveAnimalRepository(ConnectionFactory connectionFactory) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+        // Kept local rather than a bean so @Transactional keeps resolving to the single JPA transaction manager.
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    public Flux<AnimalSummary> findSummariesByAnimalType(String animalType) {
+        return databaseClient.execute(SUMMARY + " WHERE ANIMAL_TYPE = :animalType ORDER BY ID")
+                .bind("animalType", animalType)
+                .map(ReactiveAnimalRepository::toSummary)
+                .all();
+    }
+
+    public Flux<AnimalSummary> findSummariesByAnimalTypeAndIdGreaterThan(String animalType, Long id, int limit) {
+        return databaseClient.execute(SUMMARY + " WHERE ANIMAL_TYPE = :animalType AND ID > :id ORDER BY ID LIMIT :limit")
+                .bind("animalType", animalType)
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(ReactiveAnimalRepository::toSummary)
+                .all();
+    }
+
+    public Mono<AnimalSummary> findSummaryById(String animalType, Long id) {
+        return databaseClient.execute(DETAIL + " WHERE ANIMAL_TYPE = :animalType AND ID = :id")
+                .bind("animalType", animalType)
+                .bind("id", id)
+                .map(ReactiveAnimalRepository::toDetail)
+                .one();
+    }
+
+    /**
+     * Binds the IDs as one collection, which is expanded to a placeholder per ID in the {@code IN} list.
+     */
+    public Flux<AnimalSummary> findSummariesByAnimalTypeAndIdIn(String animalType, Collection<Long> ids) {
+        return databaseClient.execute(DETAIL + " WHERE ANIMAL_TYPE = :animalType AND ID IN (:ids)")
+                .bind("animalType", animalType)
+                .bind("ids", ids)
+                .map(ReactiveAnimalRepository::toDetail)
+                .all();
+    }
+
+    /**
+     * @return the type's collection version, 0 while nothing of the type has been written
+     */
+    public Mono<Long> findCollectionVersion(String animalType) {
+        return databaseClient.execute("SELECT VERSION FROM animal_type_version_tbl WHERE ANIMAL_TYPE = :animalType")
+                .bind("animalType", animalType)
+                .map(row -> row.get("VERSION", Long.class))
+                .one()
+                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * @return the generated ID
+     */
+    public Mono<Long> insert(AnimalEntity animalEntity) {
+        return insertRow(animalEntity)
+                .flatMap(id -> bumpVersions(Collections.singleton(animalEntity.getAnimalType())).thenReturn(id))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Long> insertRow(AnimalEntity animalEntity) {
+        LocalDateTime now = LocalDateTime.now();
+        return databaseClient.insert().into("animal_tbl")
+                .value("NAME", animalEntity.getName())
+                .value("DESCRIPTION", animalEntity.getDescription())
+                .value("ANIMAL_TYPE", animalEntity.getAnimalType())
+                .value("GROUP_NAME", animalEntity.getGroup())
+                .value("CREATED_DATE", now)
+                .value("UPDATED_DATE", now)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Inserts the entities one after the other in a single transaction.
+     *
+     * @return the generated IDs in the order of the entities
+     */
+    public Flux<Long> insertAll(List<AnimalEntity> animalEntities) {
+        return Flux.fromIterable(animalEntities)
+                .concatMap(this::insertRow)
+                .concatWith(bumpVersions(animalEntities.stream().map(AnimalEntity::getAnimalType)
+                        .collect(Collectors.toList())).then(Mono.empty()))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * @return the number of matched rows, 0 when no animal of the type has the ID
+     */
+    public Mono<Integer> updateNameAndDescription(String animalType, Long id, String name, String description,
+                                                  LocalDateTime updatedDate) {
+        Mono<Integer> updated = databaseClient.execute(UPDATE + " WHERE ANIMAL_TYPE = :animalType AND ID = :id")
+                .bind("animalType", animalType)
+                .bind("name", name)
+                .bind("description", description)
+                .bind("updatedDate", updatedDate)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+        return bumpingVersion(animalType, updated);
+    }
+
+    /**
+     * @return the number of matched rows, 0 when no animal of the type has the ID or it is at another version
+     */
+    public Mono<Integer> updateNameAndDescriptionIfVersion(String animalType, Long id, long version, String name,
+                                                           String description, LocalDateTime updatedDate) {
+        return patchIfVersion(animalType, id, version, name, description, updatedDate);
+    }
+
+    /**
+     * Writes only the columns given, keeping the stored name or description where it is passed as null.
+     *
+     * @return the number of matched rows, 0 when no animal of the type has the ID or it is at another version
+     */
+    public Mono<Integer> patchIfVersion(String animalType, Long id, long version, String name, String description,
+                                        LocalDateTime updatedDate) {
+        String update = "UPDATE animal_tbl SET UPDATED_DATE = :updatedDate, VERSION = VERSION + 1"
+                + (name == null ? "" : ", NAME = :name")
+                + (description == null ? "" : ", DESCRIPTION = :description")
+                + " WHERE ANIMAL_TYPE = :animalType AND ID = :id AND VERSION = :version";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.execute(update)
+                .bind("updatedDate", updatedDate)
+                .bind("animalType", animalType)
+                .bind("id", id)
+                .bind("version", version);
+        if (name != null) {
+            spec = spec.bind("name", name);
+        }
+        if (description != null) {
+            spec = spec.bind("description", description);
+        }
+        return bumpingVersion(animalType, spec.fetch().rowsUpdated());
+    }
+
+    /**
+     * @return the number of deleted rows, 0 when no animal of the type has the ID
+     */
+    public Mono<Integer> deleteAnimalById(String animalType, Long id) {
+        Mono<Integer> deleted = databaseClient.execute("DELETE FROM animal_tbl WHERE ANIMAL_TYPE = :animalType AND ID = :id")
+                .bind("animalType", animalType)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+        return bumpingVersion(animalType, deleted);
+    }
+
+    /**
+     * Runs the write and, when it touched a row, the version bump in one transaction.
+     */
+    private Mono<Integer> bumpingVersion(String animalType, Mono<Integer> rowsUpdated) {
+        return rowsUpdated
+                .flatMap(rows -> rows > 0 ? bumpVersions(Collections.singleton(animalType)).thenReturn(rows) : Mono.just(rows))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Bumps each type once, in name order like the JPA store so the version rows are always locked in the same order.
+     */
+    private Mono<Void> bumpVersions(Collection<String> animalTypes) {
+        return Flux.fromIterable(new TreeSet<>(animalTypes))
+                .concatMap(animalType -> databaseClient.execute(BUMP_VERSION)
+                        .bind("animalType", animalType)
+                        .fetch()
+                        .rowsUpdated())
+                .then();
+    }
+
+    private static AnimalSummary toSummary(Row row) {
+        return new AnimalSummary(row.get("ID", Long.class), row.get("NAME", String.class),
+                row.get("DESCRIPTION", String.class), row.get("GROUP_NAME", String.class));
+    }
+
+    private static AnimalSummary toDetail(Row row) {
+        return new AnimalSummary(row.get("ID", Long.class), row.get("NAME", String.class),
+                row.get("DESCRIPTION", String.class), row.get("GROUP_NAME", String.class),
+                row.get("UPDATED_DATE", LocalDateTime.class), row.get("VERSION", Long.class));
+    }
+}
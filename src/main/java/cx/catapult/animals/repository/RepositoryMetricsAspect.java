@@ -0,0 +1,56 @@
+package cx.catapult.animals.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Times every {@link AnimalStore} call as {@code animals.repository}, tagged with the method and whether it
+ * threw, and records the number of rows returned by list queries as {@code animals.repository.results}. Together
+ * with the service timers this separates time spent in storage from mapping and serialization.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    static final String METRIC = "animals.repository";
+    static final String RESULTS_METRIC = "animals.repository.results";
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* cx.catapult.animals.repository.AnimalStore+.*(..)) && !execution(* java.lang.Object.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof Collection) {
+                DistributionSummary.builder(RESULTS_METRIC)
+                        .baseUnit("rows")
+                        .tag("method", method)
+                        .register(meterRegistry)
+                        .record(((Collection<?>) result).size());
+            }
+            return result;
+        } catch (Throwable t) {
+            outcome = "error";
+            throw t;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
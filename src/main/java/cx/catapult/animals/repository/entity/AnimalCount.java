@@ -0,0 +1,15 @@
+package cx.catapult.animals.repository.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Number of animals of one type and group, selected through a JPQL constructor expression.
+ */
+@Value
+@AllArgsConstructor
+public class AnimalCount {
+    String animalType;
+    String group;
+    Long count;
+}
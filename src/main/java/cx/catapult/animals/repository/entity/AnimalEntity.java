@@ -12,6 +12,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 @Entity
@@ -38,7 +39,11 @@ public class AnimalEntity {
     private LocalDateTime createdDate;
     @Column(name = "UPDATED_DATE", nullable = false, columnDefinition = "TIMESTAMP")
     private LocalDateTime updatedDate;
-
-
+    /**
+     * Bumped by every update, so an update can require the row to still be at the version its caller read.
+     */
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
 
 }
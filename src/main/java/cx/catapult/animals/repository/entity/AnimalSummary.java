@@ -0,0 +1,37 @@
+package cx.catapult.animals.repository.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of an animal row with just the columns the API returns. Selected through JPQL constructor
+ * expressions, so rows are never managed, snapshotted or dirty-checked by the persistence context.
+ */
+@Value
+@AllArgsConstructor
+public class AnimalSummary {
+    Long id;
+    String name;
+    String description;
+    String group;
+    LocalDateTime updatedDate;
+    /**
+     * Only selected with the updated date, when a single animal is loaded.
+     */
+    Long version;
+
+    public AnimalSummary(Long id, String name, String description, String group) {
+        this(id, name, description, group, null, null);
+    }
+
+    public AnimalSummary(Long id, String name, String description, String group, LocalDateTime updatedDate) {
+        this(id, name, description, group, updatedDate, null);
+    }
+
+    public static AnimalSummary of(AnimalEntity animalEntity) {
+        return new AnimalSummary(animalEntity.getId(), animalEntity.getName(), animalEntity.getDescription(),
+                animalEntity.getGroup(), animalEntity.getUpdatedDate(), animalEntity.getVersion());
+    }
+}
@@ -0,0 +1,74 @@
+package cx.catapult.animals.repository.memory;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Ascending IDs of the animals of one type, so listing a type walks only its own IDs. IDs are appended in the order
+ * they are assigned, which keeps the array sorted without any insertion work.
+ * <p>
+ * Readers take an immutable {@link Snapshot} and never lock. Appending writes past the end of every published
+ * snapshot before publishing a longer one, and compaction copies into a new array, so a slot inside a published
+ * snapshot never changes. Removed IDs stay until compaction and are skipped by the store when it finds no row.
+ */
+final class IdIndex {
+
+    private static final int MIN_COMPACT_SIZE = 64;
+
+    private volatile Snapshot snapshot = new Snapshot(new long[16], 0);
+    private int removed;
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Callers must hold the index monitor while assigning and appending, so IDs arrive in ascending order.
+     */
+    void append(long id) {
+        Snapshot current = snapshot;
+        long[] ids = current.ids;
+        if (current.size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[current.size] = id;
+        snapshot = new Snapshot(ids, current.size + 1);
+    }
+
+    /**
+     * Records that one of the IDs no longer has a row and compacts once those make up half of the index.
+     */
+    synchronized void removed(LongPredicate present) {
+        Snapshot current = snapshot;
+        if (++removed * 2 < current.size || current.size < MIN_COMPACT_SIZE) {
+            return;
+        }
+        long[] ids = new long[Math.max(16, current.size - removed + 16)];
+        int size = 0;
+        for (int i = 0; i < current.size; i++) {
+            if (present.test(current.ids[i])) {
+                ids[size++] = current.ids[i];
+            }
+        }
+        removed = 0;
+        snapshot = new Snapshot(ids, size);
+    }
+
+    static final class Snapshot {
+        final long[] ids;
+        final int size;
+
+        Snapshot(long[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+
+        /**
+         * @return the position of the first ID greater than the given one
+         */
+        int indexAfter(long id) {
+            int found = Arrays.binarySearch(ids, 0, size, id);
+            return found >= 0 ? found + 1 : -found - 1;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package cx.catapult.animals.repository.memory;
+
+import cx.catapult.animals.repository.AnimalOrder;
+import cx.catapult.animals.repository.AnimalStore;
+import cx.catapult.animals.repository.entity.AnimalCount;
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the animals in memory for running without MySQL, selected with the {@code memory} profile. Rows sit in
+ * {@link LongObjectMap} stripes keyed by ID, with an {@link IdIndex} per animal type for the list queries. Reads
+ * never lock. Writes lock one stripe, and creates also lock the type's index so IDs are appended in order. Rows are
+ * immutable and replaced as a whole, so a reader never sees half an update. Each type's collection version is bumped
+ * once the write it counts is in place, so a version read before the rows is never ahead of them.
+ */
+@Repository
+@Profile("memory")
+public class InMemoryAnimalStore implements AnimalStore {
+
+    static final int STRIPES = 16;
+    /**
+     * Case insensitive like MySQL's default collation.
+     */
+    private static final Comparator<AnimalSummary> BY_NAME = Comparator
+            .comparing(AnimalSummary::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(AnimalSummary::getId);
+
+    @SuppressWarnings("unchecked")
+    private final LongObjectMap<Row>[] rows = new LongObjectMap[STRIPES];
+    private final ConcurrentMap<String, IdIndex> indexes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public InMemoryAnimalStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            rows[i] = new LongObjectMap<>();
+        }
+    }
+
+    @Override
+    public List<AnimalSummary> findSummariesByAnimalType(String animalType) {
+        IdIndex.Snapshot snapshot = index(animalType).snapshot();
+        return collect(snapshot, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<AnimalSummary> findSummariesByAnimalTypeAndIdGreaterThan(String animalType, Long id, Pageable pageable) {
+        IdIndex.Snapshot snapshot = index(animalType).snapshot();
+        List<AnimalSummary> page = collect(snapshot, snapshot.indexAfter(id), pageable.getOffset() + pageable.getPageSize());
+        int offset = (int) Math.min(pageable.getOffset(), page.size());
+        return offset == 0 ? page : new ArrayList<>(page.subList(offset, page.size()));
+    }
+
+    /**
+     * Walks the type's IDs like the other list queries; name order sorts the matching rows on every call, which is
+     * fine for the data sets this store is meant for.
+     */
+    @Override
+    public List<AnimalSummary> findSummaries(String animalType, String group, AnimalOrder order, AnimalSummary after,
+                                             int limit) {
+        IdIndex.Snapshot snapshot = index(animalType).snapshot();
+        boolean byName = order == AnimalOrder.NAME;
+        int from = after == null || byName ? 0 : snapshot.indexAfter(after.getId());
+        Stream<AnimalSummary> animals = IntStream.range(from, snapshot.size)
+                .mapToObj(i -> row(snapshot.ids[i]))
+                .filter(row -> row != null && (group == null || group.equals(row.group)))
+                .map(row -> row.toSummary(false));
+        if (byName) {
+            animals = animals.sorted(BY_NAME).filter(animal -> after == null || BY_NAME.compare(animal, after) > 0);
+        }
+        return animals.limit(limit).collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<AnimalSummary> findSummaryById(String animalType, Long id) {
+        Row row = row(animalType, id);
+        return row == null ? Optional.empty() : Optional.of(row.toSummary(true));
+    }
+
+    @Override
+    public List<AnimalSummary> findSummariesByAnimalTypeAndIdIn(String animalType, Collection<Long> ids) {
+        return ids.stream()
+                .map(id -> row(animalType, id))
+                .filter(row -> row != null)
+                .map(row -> row.toSummary(true))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<AnimalCount> countByAnimalTypeAndGroup() {
+        List<AnimalCount> counts = new ArrayList<>();
+        indexes.forEach((animalType, index) -> {
+            IdIndex.Snapshot snapshot = index.snapshot();
+            IntStream.range(0, snapshot.size)
+                    .mapToObj(i -> row(snapshot.ids[i]))
+                    .filter(row -> row != null)
+                    .collect(Collectors.groupingBy(row -> row.group, Collectors.counting()))
+                    .forEach((group, count) -> counts.add(new AnimalCount(animalType, group, count)));
+        });
+        return counts;
+    }
+
+    @Override
+    public long findCollectionVersion(String animalType) {
+        AtomicLong version = versions.get(animalType);
+        return version == null ? 0 : version.get();
+    }
+
+    @Override
+    public int updateNameAndDescription(String animalType, Long id, String name, String description,
+                                        LocalDateTime updatedDate) {
+        Row updated = row(animalType, id) == null ? null
+                : stripe(id).update(id, row -> row.updated(name, description, updatedDate));
+        return bumpVersion(animalType, updated == null ? 0 : 1);
+    }
+
+    /**
+     * Every update replaces the row and bumps its version, so the row read here is only replaced while it is still
+     * current.
+     */
+    @Override
+    public int updateNameAndDescriptionIfVersion(String animalType, Long id, long version, String name,
+                                                 String description, LocalDateTime updatedDate) {
+        return patchIfVersion(animalType, id, version, name, description, updatedDate);
+    }
+
+    @Override
+    public int patchIfVersion(String animalType, Long id, long version, String name, String description,
+                              LocalDateTime updatedDate) {
+        Row row = row(animalType, id);
+        if (row == null || row.version != version) {
+            return 0;
+        }
+        Row patched = row.updated(name == null ? row.name : name, description == null ? row.description : description,
+                updatedDate);
+        return bumpVersion(animalType, stripe(id).replace(id, row, patched) ? 1 : 0);
+    }
+
+    @Override
+    public int[] updateAll(List<AnimalEntity> animals) {
+        int[] counts = new int[animals.size()];
+        for (int i = 0; i < counts.length; i++) {
+            AnimalEntity animal = animals.get(i);
+            counts[i] = updateNameAndDescription(animal.getAnimalType(), animal.getId(), animal.getName(),
+                    animal.getDescription(), animal.getUpdatedDate());
+        }
+        return counts;
+    }
+
+    @Override
+    public int deleteAnimalById(String animalType, Long id) {
+        Row removed = row(animalType, id) == null ? null : stripe(id).remove(id);
+        if (removed == null) {
+            return 0;
+        }
+        index(removed.animalType).removed(present -> row(present) != null);
+        return bumpVersion(animalType, 1);
+    }
+
+    @Override
+    public <S extends AnimalEntity> S save(S animal) {
+        IdIndex index = index(animal.getAnimalType());
+        synchronized (index) {
+            animal.setId(insert(index, animal, LocalDateTime.now()));
+        }
+        bumpVersion(animal.getAnimalType(), 1);
+        return animal;
+    }
+
+    @Override
+    public List<Long> insertAll(List<AnimalEntity> animals) {
+        List<Long> ids = new ArrayList<>(animals.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (AnimalEntity animal : animals) {
+            IdIndex index = index(animal.getAnimalType());
+            synchronized (index) {
+                ids.add(insert(index, animal, now));
+            }
+            bumpVersion(animal.getAnimalType(), 1);
+        }
+        return ids;
+    }
+
+    private int bumpVersion(String animalType, int rows) {
+        if (rows > 0) {
+            versions.computeIfAbsent(animalType, type -> new AtomicLong()).incrementAndGet();
+        }
+        return rows;
+    }
+
+    @Override
+    public Stream<AnimalSummary> streamByAnimalType(String animalType) {
+        IdIndex.Snapshot snapshot = index(animalType).snapshot();
+        return IntStream.range(0, snapshot.size)
+                .mapToObj(i -> row(snapshot.ids[i]))
+                .filter(row -> row != null)
+                .map(row -> row.toSummary(false));
+    }
+
+    private long insert(IdIndex index, AnimalEntity animal, LocalDateTime now) {
+        long id = sequence.incrementAndGet();
+        stripe(id).put(id, new Row(id, animal.getName(), animal.getDescription(), animal.getGroup(),
+                animal.getAnimalType(), now, now, 0));
+        index.append(id);
+        return id;
+    }
+
+    private List<AnimalSummary> collect(IdIndex.Snapshot snapshot, int from, long limit) {
+        List<AnimalSummary> summaries = new ArrayList<>((int) Math.min(limit, snapshot.size - from));
+        for (int i = from; i < snapshot.size && summaries.size() < limit; i++) {
+            Row row = row(snapshot.ids[i]);
+            if (row != null) {
+                summaries.add(row.toSummary(false));
+            }
+        }
+        return summaries;
+    }
+
+    private IdIndex index(String animalType) {
+        return indexes.computeIfAbsent(animalType, type -> new IdIndex());
+    }
+
+    private Row row(long id) {
+        return id <= 0 ? null : stripe(id).get(id);
+    }
+
+    /**
+     * IDs are never reused and an animal never changes type, so a row found here keeps its type for as long as it
+     * exists, and writes may check the type before touching the row.
+     */
+    private Row row(String animalType, long id) {
+        Row row = row(id);
+        return row != null && animalType.equals(row.animalType) ? row : null;
+    }
+
+    private LongObjectMap<Row> stripe(long id) {
+        return rows[(int) (id & (STRIPES - 1))];
+    }
+
+    private static final class Row {
+        final long id;
+        final String name;
+        final String description;
+        final String group;
+        final String animalType;
+        final LocalDateTime createdDate;
+        final LocalDateTime updatedDate;
+        final long version;
+
+        Row(long id, String name, String description, String group, String animalType,
+            LocalDateTime createdDate, LocalDateTime updatedDate, long version) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.group = group;
+            this.animalType = animalType;
+            this.createdDate = createdDate;
+            this.updatedDate = updatedDate;
+            this.version = version;
+        }
+
+        Row updated(String name, String description, LocalDateTime updatedDate) {
+            return new Row(id, name, description, group, animalType, createdDate, updatedDate, version + 1);
+        }
+
+        AnimalSummary toSummary(boolean withUpdatedDate) {
+            return withUpdatedDate ? new AnimalSummary(id, name, description, group, updatedDate, version)
+                    : new AnimalSummary(id, name, description, group);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package cx.catapult.animals.repository.memory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * Open addressing hash map from positive {@code long} keys to values. Keys live in a primitive array probed
+ * linearly, so a lookup neither boxes the key nor follows entry objects.
+ * <p>
+ * Reads never lock: they go through the current table, published through a volatile field, and read each slot
+ * through atomic arrays. A writer sets the value before the key, so a reader that finds the key also sees its
+ * value. Writers serialise on the map. Removing a key keeps it in its slot with a null value so probe chains stay
+ * intact, and the table is rebuilt without those slots once live and removed keys fill half of it. Readers still
+ * on the old table see it as it was when it was replaced.
+ */
+final class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile Table<V> table = new Table<>(MIN_CAPACITY);
+    private int used;
+    private int size;
+
+    V get(long key) {
+        Table<V> current = table;
+        int mask = current.mask;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long slot = current.keys.get(i);
+            if (slot == key) {
+                return current.values.get(i);
+            }
+            if (slot == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return the previous value, or null when the key was absent or removed
+     */
+    synchronized V put(long key, V value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+        Table<V> current = table;
+        int mask = current.mask;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long slot = current.keys.get(i);
+            if (slot == key) {
+                V previous = current.values.getAndSet(i, value);
+                if (previous == null) {
+                    size++;
+                }
+                return previous;
+            }
+            if (slot == 0) {
+                current.values.set(i, value);
+                current.keys.set(i, key);
+                size++;
+                if (++used > current.keys.length() / 2) {
+                    rebuild();
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Replaces the value of a present key with the result of the function.
+     *
+     * @return the new value, or null when the key is absent
+     */
+    synchronized V update(long key, UnaryOperator<V> function) {
+        V value = get(key);
+        if (value == null) {
+            return null;
+        }
+        V updated = function.apply(value);
+        put(key, updated);
+        return updated;
+    }
+
+    /**
+     * Replaces the value of the key only while it is still {@code expected}, compared by identity.
+     *
+     * @return whether the value was replaced
+     */
+    synchronized boolean replace(long key, V expected, V value) {
+        if (expected == null || get(key) != expected) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * @return the removed value, or null when the key was absent
+     */
+    synchronized V remove(long key) {
+        Table<V> current = table;
+        int mask = current.mask;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long slot = current.keys.get(i);
+            if (slot == key) {
+                V previous = current.values.getAndSet(i, null);
+                if (previous != null) {
+                    size--;
+                }
+                return previous;
+            }
+            if (slot == 0) {
+                return null;
+            }
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int capacity() {
+        return table.keys.length();
+    }
+
+    private void rebuild() {
+        int capacity = MIN_CAPACITY;
+        while (capacity < size * 3) {
+            capacity <<= 1;
+        }
+        Table<V> current = table;
+        Table<V> rebuilt = new Table<>(capacity);
+        for (int i = 0; i < current.keys.length(); i++) {
+            V value = current.values.get(i);
+            if (value != null) {
+                long key = current.keys.get(i);
+                int j = index(key, rebuilt.mask);
+                while (rebuilt.keys.get(j) != 0) {
+                    j = (j + 1) & rebuilt.mask;
+                }
+                rebuilt.values.lazySet(j, value);
+                rebuilt.keys.lazySet(j, key);
+            }
+        }
+        used = size;
+        table = rebuilt;
+    }
+
+    private static int index(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static final class Table<V> {
+        final AtomicLongArray keys;
+        final AtomicReferenceArray<V> values;
+        final int mask;
+
+        Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.domain.AnimalStats;
+import cx.catapult.animals.repository.AnimalStore;
+import cx.catapult.animals.repository.entity.AnimalCount;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Animal counts per type and group, kept in memory so reading them never touches the store. The services count
+ * creates and deletes as they commit, and a background job recounts from the store every
+ * {@code animals.stats.reconcile-interval} to correct writes that bypassed the services or committed while the
+ * previous recount ran. How far the counts were off is recorded in the {@code animals.stats.drift} meter.
+ */
+@Component
+@EnableConfigurationProperties(AnimalsProperties.class)
+public class AnimalStatistics implements DisposableBean {
+
+    static final String METRIC = "animals.stats";
+
+    private final AnimalStore animalRepository;
+    private final ConcurrentMap<String, ConcurrentMap<String, AtomicLong>> counts = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary drift;
+    private final ScheduledExecutorService reconciler;
+    private final ApplicationContext applicationContext;
+
+    public AnimalStatistics(AnimalStore animalRepository, AnimalsProperties properties, MeterRegistry meterRegistry,
+                            ApplicationContext applicationContext) {
+        this.animalRepository = animalRepository;
+        this.applicationContext = applicationContext;
+        this.meterRegistry = meterRegistry;
+        this.drift = DistributionSummary.builder(METRIC + ".drift").baseUnit("animals").register(meterRegistry);
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("animals-stats-"));
+        long interval = properties.getStats().getReconcileInterval().toNanos();
+        reconciler.scheduleWithFixedDelay(this::reconcileQuietly, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        reconciler.shutdownNow();
+    }
+
+    void added(String animalType, String group) {
+        count(animalType, group).incrementAndGet();
+    }
+
+    void removed(String animalType, String group) {
+        count(animalType, group).decrementAndGet();
+    }
+
+    /**
+     * @return the current counts, built from a handful of counters whatever the number of animals
+     */
+    public AnimalStats get() {
+        long total = 0;
+        Map<String, AnimalStats.TypeStats> types = new TreeMap<>();
+        for (Map.Entry<String, ConcurrentMap<String, AtomicLong>> type : counts.entrySet()) {
+            long typeTotal = 0;
+            Map<String, Long> groups = new TreeMap<>();
+            for (Map.Entry<String, AtomicLong> group : type.getValue().entrySet()) {
+                long count = group.getValue().get();
+                if (count != 0) {
+                    groups.put(group.getKey(), count);
+                    typeTotal += count;
+                }
+            }
+            if (typeTotal != 0) {
+                types.put(type.getKey(), new AnimalStats.TypeStats(typeTotal, groups));
+                total += typeTotal;
+            }
+        }
+        return new AnimalStats(total, types);
+    }
+
+    /**
+     * Counts from the store before the application takes requests. Child contexts, such as a management context on
+     * its own port, publish their refresh to this context too and are ignored.
+     */
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        if (event.getApplicationContext() == applicationContext) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Replaces the counts with a fresh count from the store. Runs once before the application takes requests and
+     * then on the reconcile interval.
+     */
+    public void reconcile() {
+        Map<String, Map<String, Long>> actual = new HashMap<>();
+        for (AnimalCount count : animalRepository.countByAnimalTypeAndGroup()) {
+            actual.computeIfAbsent(count.getAnimalType(), type -> new HashMap<>()).put(count.getGroup(), count.getCount());
+            count(count.getAnimalType(), count.getGroup());
+        }
+        long off = 0;
+        for (Map.Entry<String, ConcurrentMap<String, AtomicLong>> type : counts.entrySet()) {
+            Map<String, Long> groups = actual.getOrDefault(type.getKey(), new HashMap<>());
+            for (Map.Entry<String, AtomicLong> group : type.getValue().entrySet()) {
+                long count = groups.getOrDefault(group.getKey(), 0L);
+                off += Math.abs(group.getValue().getAndSet(count) - count);
+            }
+        }
+        drift.record(off);
+    }
+
+    void reconcileQuietly() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // Keeps the job scheduled; the next run starts from scratch anyway.
+            outcome = "error";
+        } finally {
+            sample.stop(Timer.builder(METRIC + ".reconcile").tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+
+    private AtomicLong count(String animalType, String group) {
+        return counts.computeIfAbsent(animalType, type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(group, name -> new AtomicLong());
+    }
+}
@@ -1,73 +1,565 @@
 package cx.catapult.animals.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import cx.catapult.animals.config.AnimalCaches;
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.config.ReplicaRoutingDataSource;
 import cx.catapult.animals.domain.Animal;
+import cx.catapult.animals.domain.AnimalLookup;
+import cx.catapult.animals.domain.AnimalPage;
+import cx.catapult.animals.domain.BaseAnimal;
+import cx.catapult.animals.domain.EncodedAnimal;
+import cx.catapult.animals.domain.Group;
 import cx.catapult.animals.exception.AnimalNotFoundException;
-import cx.catapult.animals.repository.AnimalRepository;
+import cx.catapult.animals.exception.InvalidRequestException;
+import cx.catapult.animals.exception.PreconditionFailedException;
+import cx.catapult.animals.repository.AnimalOrder;
+import cx.catapult.animals.repository.AnimalStore;
 import cx.catapult.animals.repository.entity.AnimalEntity;
-import lombok.AllArgsConstructor;
-import org.springframework.dao.EmptyResultDataAccessException;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@AllArgsConstructor
-public abstract class BaseService<T extends Animal> implements Service<T> {
+@RequiredArgsConstructor
+public abstract class BaseService<T extends Animal> implements Service<T>, DisposableBean {
 
-    protected final AnimalRepository animalRepository;
+    public static final int MAX_BATCH_SIZE = 10_000;
+    public static final int MAX_SEARCH_LIMIT = 50;
+    static final int MAX_PATCH_ATTEMPTS = 3;
 
-    protected List<T> convertedList(List<AnimalEntity> animals) {
-        return animals.stream().map(this::convertEntityToDomainObject).collect(Collectors.toList());
+    protected final AnimalStore animalRepository;
+
+    private final SearchIndex searchIndex = new SearchIndex();
+    private Cache<Long, T> cache;
+    private Cache<Long, EncodedAnimal> responseCache;
+    private WriteBehindQueue writeBehind;
+    private AnimalsProperties.Ack writeBehindAck;
+    private AnimalStatistics statistics;
+    private AnimalsProperties.MultiGet multiGet = new AnimalsProperties.MultiGet();
+    private ApplicationContext applicationContext;
+
+    @Autowired(required = false)
+    void setAnimalCaches(AnimalCaches animalCaches) {
+        this.cache = animalCaches.create(getAnimalType());
+        this.responseCache = animalCaches.createResponseCache(getAnimalType());
+    }
+
+    @Autowired(required = false)
+    void setWriteBehindQueues(WriteBehindQueues writeBehindQueues) {
+        this.writeBehind = writeBehindQueues.create(getAnimalType(), animalRepository, this::flushed);
+        this.writeBehindAck = writeBehindQueues.getAck();
+    }
+
+    @Autowired(required = false)
+    void setAnimalStatistics(AnimalStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Autowired(required = false)
+    void setAnimalsProperties(AnimalsProperties properties) {
+        this.multiGet = properties.getMultiGet();
+    }
+
+    @Autowired
+    void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Flushes the write-behind queue before the store goes away.
+     */
+    @Override
+    public void destroy() {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    protected List<T> convertedList(List<AnimalSummary> animals) {
+        return animals.stream().map(this::convertToDomainObject).collect(Collectors.toList());
+    }
+
+    /**
+     * Kept by the store rather than counted here, so every instance answers the same version and writes made
+     * elsewhere change it too. Read wherever the caller's transaction reads, so within {@link #readConsistently} it
+     * comes from the same replica or primary as the collection it stamps.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public String getVersion() {
+        return versionToken(animalRepository.findCollectionVersion(getAnimalType()));
+    }
+
+    /**
+     * Relies on the transaction reading one snapshot, which InnoDB's default REPEATABLE READ isolation takes at the
+     * first read.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public <R> R readConsistently(Supplier<R> read) {
+        return read.get();
+    }
+
+    /**
+     * @return the version in base 36, shared with the reactive stack so both hand out the same ETags
+     */
+    static String versionToken(long version) {
+        return Long.toString(version, Character.MAX_RADIX);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AnimalPage<T> page(String after, int limit) {
+        // Fetch one extra row to find out whether there is a next page without a COUNT query.
+        List<AnimalSummary> animals = animalRepository.findSummariesByAnimalTypeAndIdGreaterThan(
+                getAnimalType(), decodeCursor(after), PageRequest.of(0, limit + 1));
+        String next = null;
+        if (animals.size() > limit) {
+            animals = animals.subList(0, limit);
+            next = encodeCursor(animals.get(limit - 1).getId());
+        }
+        return new AnimalPage<>(convertedList(animals), next);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<T> all(String group, String sort) {
+        AnimalOrder order = parseSort(sort);
+        if (group == null && order == AnimalOrder.CREATED) {
+            return all();
+        }
+        return convertedList(animalRepository.findSummaries(getAnimalType(), parseGroup(group), order, null, Integer.MAX_VALUE));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AnimalPage<T> page(String after, int limit, String group, String sort) {
+        AnimalOrder order = parseSort(sort);
+        if (group == null && order == AnimalOrder.CREATED) {
+            return page(after, limit);
+        }
+        List<AnimalSummary> animals = animalRepository.findSummaries(getAnimalType(), parseGroup(group), order,
+                decodeCursor(after, order), limit + 1);
+        String next = null;
+        if (animals.size() > limit) {
+            animals = animals.subList(0, limit);
+            next = encodeCursor(animals.get(limit - 1), order);
+        }
+        return new AnimalPage<>(convertedList(animals), next);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(Consumer<? super T> consumer) {
+        try (Stream<AnimalSummary> animals = animalRepository.streamByAnimalType(getAnimalType())) {
+            animals.map(this::convertToDomainObject).forEach(consumer);
+        }
+    }
+
+    /**
+     * Fills the search index from the store before the application takes requests; writes through this service keep
+     * it current from then on. Child contexts, such as a management context on its own port, publish their refresh to
+     * this context too, so only the refresh of the context this service lives in loads the index.
+     */
+    @EventListener
+    @Transactional(readOnly = true)
+    public void loadSearchIndex(ContextRefreshedEvent event) {
+        if (event.getApplicationContext() != applicationContext) {
+            return;
+        }
+        try (Stream<AnimalSummary> animals = animalRepository.streamByAnimalType(getAnimalType())) {
+            animals.forEach(searchIndex::put);
+        }
     }
 
+    @Override
+    public List<T> search(String query, int limit) {
+        return convertedList(searchIndex.search(query, limit));
+    }
 
     @Override
     public T create(T animal) {
         AnimalEntity animalEntity = convertDomainObjectToEntity(animal);
-        AnimalEntity savedAnimalEntity = animalRepository.save(animalEntity);
-        return convertEntityToDomainObject(savedAnimalEntity);
+        if (writeBehind != null) {
+            // The response carries the generated ID, so a queued create always waits for its batch.
+            animalEntity.setId(await(writeBehind.create(animalEntity)));
+        } else {
+            animalEntity = animalRepository.save(animalEntity);
+        }
+        AnimalSummary created = AnimalSummary.of(animalEntity);
+        indexed(Collections.singletonList(created));
+        return convertToDomainObject(created);
+    }
+
+    @Override
+    @Transactional
+    public List<String> createAll(List<T> animals) {
+        List<AnimalEntity> animalEntities = animals.stream().map(this::convertDomainObjectToEntity).collect(Collectors.toList());
+        List<Long> ids = animalRepository.insertAll(animalEntities);
+        List<AnimalSummary> created = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            AnimalEntity animalEntity = animalEntities.get(i);
+            created.add(new AnimalSummary(ids.get(i), animalEntity.getName(), animalEntity.getDescription(), animalEntity.getGroup()));
+        }
+        indexed(created);
+        return ids.stream().map(String::valueOf).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public T get(String id) {
-        Optional<AnimalEntity> animalEntityOpt = animalRepository.findById(convertIdToLong(id));
-        return animalEntityOpt.map(this::convertEntityToDomainObject).orElseThrow( () -> new AnimalNotFoundException());
+        return get(convertIdToLong(id));
+    }
+
+    /**
+     * Takes what it can from the cache and loads the rest with one {@code IN} query, caching what it loaded. IDs that
+     * are not valid are reported as not found without being queried.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<AnimalLookup<T>> getAll(List<String> ids) {
+        Set<Long> animalIds = parseIds(ids);
+        Map<Long, T> found = cache == null ? loadAll(animalIds)
+                : cache.getAll(animalIds, missing -> ReplicaRoutingDataSource.onPrimary(() -> loadAll(missing)));
+        return lookups(ids, found);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EncodedAnimal get(String id, Function<? super T, EncodedAnimal> encoder) {
+        long animalId = convertIdToLong(id);
+        if (responseCache == null) {
+            return encoder.apply(get(animalId));
+        }
+        return responseCache.get(animalId, key -> encoder.apply(ReplicaRoutingDataSource.onPrimary(() -> get(key))));
+    }
+
+    @Override
+    public EncodedAnimal getEncodedIfPresent(String id) {
+        return responseCache == null ? null : responseCache.getIfPresent(convertIdToLong(id));
+    }
+
+    private T get(long animalId) {
+        if (cache == null) {
+            return load(animalId);
+        }
+        return cache.get(animalId, this::loadFromPrimary);
     }
 
     @Override
     public void delete(String id) {
-        try {
-            animalRepository.deleteById(convertIdToLong(id));
-        } catch (EmptyResultDataAccessException erdae) {
+        long animalId = convertIdToLong(id);
+        if (animalRepository.deleteAnimalById(getAnimalType(), animalId) == 0) {
             throw new AnimalNotFoundException();
         }
+        invalidate(animalId);
+        unindexed(animalId);
     }
 
+    /**
+     * An animal carrying a version is only updated while the stored one is still at it, and then carries the
+     * version it was updated to. The check is part of the UPDATE statement, so it takes no lock and no extra read.
+     * Such updates never wait in the write-behind queue, but first write the update of the animal still waiting
+     * there, so it cannot be written over them later. Queued updates are reindexed once they are written.
+     */
     @Override
     public void update(T animal) {
-        Optional<AnimalEntity> animalEntityOpt = animalRepository.findById(convertIdToLong(animal.getId()));
-        if(animalEntityOpt.isPresent()) {
-            this.updateAnimalEntityAndSave(animal, animalEntityOpt.get());
-        } else {
+        long animalId = checkId(animal.getNumericId());
+        Long expectedVersion = animal.getVersion();
+        if (expectedVersion != null) {
+            flushWriteBehind(animalId);
+            if (animalRepository.updateNameAndDescriptionIfVersion(getAnimalType(), animalId, expectedVersion,
+                    animal.getName(), animal.getDescription(), LocalDateTime.now()) == 0) {
+                throw new PreconditionFailedException();
+            }
+            animal.setVersion(expectedVersion + 1);
+        } else if (writeBehind != null) {
+            CompletableFuture<Void> written = writeBehind.update(animalId, animal.getName(), animal.getDescription());
+            if (writeBehindAck == AnimalsProperties.Ack.FLUSH) {
+                await(written);
+            }
+            return;
+        } else if (animalRepository.updateNameAndDescription(getAnimalType(), animalId, animal.getName(),
+                animal.getDescription(), LocalDateTime.now()) == 0) {
             throw new AnimalNotFoundException();
         }
+        invalidate(animalId);
+        reindexed(animalId, animal.getName(), animal.getDescription());
+    }
+
+    /**
+     * Reads the animal and writes only the columns whose values differ, or nothing when none do. The write only
+     * matches the version just read, so columns are never compared against one row and written over another: a patch
+     * carrying a version then fails, any other starts over. Reads the store itself rather than the cache, which may be
+     * behind, and writes it directly once the update of the animal waiting in the write-behind queue, if any, is
+     * written.
+     */
+    @Override
+    public T patch(T changes) {
+        long animalId = checkId(changes.getNumericId());
+        flushWriteBehind(animalId);
+        for (int attempt = 1; ; attempt++) {
+            T current = load(animalId);
+            checkVersion(changes, current);
+            String name = changedValue(current.getName(), changes.getName());
+            String description = changedValue(current.getDescription(), changes.getDescription());
+            if (name == null && description == null) {
+                return current;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (animalRepository.patchIfVersion(getAnimalType(), animalId, current.getVersion(), name, description, now) == 1) {
+                patched(current, name, description, now);
+                invalidate(animalId);
+                reindexed(animalId, current.getName(), current.getDescription());
+                return current;
+            }
+            if (changes.getVersion() != null || attempt == MAX_PATCH_ATTEMPTS) {
+                throw new PreconditionFailedException();
+            }
+        }
     }
 
-    abstract T convertEntityToDomainObject(AnimalEntity animalEntity);
+    abstract String getAnimalType();
+    abstract T convertToDomainObject(AnimalSummary animalSummary);
     abstract AnimalEntity convertDomainObjectToEntity(T animal);
 
-    private void updateAnimalEntityAndSave(T animal, AnimalEntity animalEntity) {
-        animalEntity.setDescription(animal.getDescription());
-        animalEntity.setName(animal.getName());
-        animalEntity.setUpdatedDate(LocalDateTime.now());
-        animalRepository.save(animalEntity);
+    private T load(Long id) {
+        Optional<AnimalSummary> animalSummaryOpt = animalRepository.findSummaryById(getAnimalType(), id);
+        return animalSummaryOpt.map(this::convertToDomainObject).orElseThrow( () -> new AnimalNotFoundException());
+    }
+
+    private Map<Long, T> loadAll(Iterable<? extends Long> ids) {
+        List<Long> animalIds = new ArrayList<>();
+        ids.forEach(animalIds::add);
+        if (animalIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return animalRepository.findSummariesByAnimalTypeAndIdIn(getAnimalType(), animalIds).stream()
+                .map(this::convertToDomainObject)
+                .collect(Collectors.toMap(Animal::getNumericId, Function.identity()));
+    }
+
+    /**
+     * Cached entries are shared by every client until they expire, so they are never filled from a replica that may
+     * lag behind the primary.
+     */
+    private T loadFromPrimary(Long id) {
+        return ReplicaRoutingDataSource.onPrimary(() -> load(id));
+    }
+
+    /**
+     * Called by the write-behind queue once a batch of updates has committed, with the animals it found.
+     */
+    private void flushed(List<AnimalEntity> animals) {
+        animals.forEach(animal -> {
+            invalidate(animal.getId());
+            reindexed(animal.getId(), animal.getName(), animal.getDescription());
+        });
     }
 
-    private Long convertIdToLong(String id) {
+    private void flushWriteBehind(long animalId) {
+        if (writeBehind != null) {
+            writeBehind.flush(animalId);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
         try {
-            return Long.parseLong(id);
-        } catch (NumberFormatException nfe) {
+            return future.join();
+        } catch (CompletionException e) {
+            // The queue only ever fails a write with the RuntimeException its batch threw.
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private void invalidate(Long id) {
+        if (cache != null) {
+            cache.invalidate(id);
+        }
+        if (responseCache != null) {
+            responseCache.invalidate(id);
+        }
+    }
+
+    /**
+     * Adds created animals to the search index and the statistics once they are visible to other readers.
+     */
+    void indexed(Collection<AnimalSummary> animals) {
+        afterCommit(() -> animals.forEach(animal -> {
+            searchIndex.put(animal);
+            if (statistics != null) {
+                statistics.added(getAnimalType(), animal.getGroup());
+            }
+        }));
+    }
+
+    void reindexed(long id, String name, String description) {
+        afterCommit(() -> searchIndex.update(id, name, description));
+    }
+
+    /**
+     * Takes a deleted animal out of the search index and, since the index knows its group, out of the statistics.
+     */
+    void unindexed(long id) {
+        afterCommit(() -> {
+            AnimalSummary removed = searchIndex.remove(id);
+            if (removed != null && statistics != null) {
+                statistics.removed(getAnimalType(), removed.getGroup());
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static void checkVersion(Animal changes, Animal current) {
+        if (changes.getVersion() != null && !changes.getVersion().equals(current.getVersion())) {
+            throw new PreconditionFailedException();
+        }
+    }
+
+    /**
+     * @return the patched value, or null when it is missing from the patch or the same as the current one
+     */
+    static String changedValue(String current, String patched) {
+        return patched == null || patched.equals(current) ? null : patched;
+    }
+
+    static void patched(Animal animal, String name, String description, LocalDateTime updatedDate) {
+        if (name != null) {
+            animal.setName(name);
+        }
+        if (description != null) {
+            animal.setDescription(description);
+        }
+        animal.setUpdatedDate(updatedDate);
+        animal.setVersion(animal.getVersion() + 1);
+    }
+
+    /**
+     * @return the distinct valid IDs among those requested
+     * @throws InvalidRequestException when none or more than {@code animals.multi-get.max-ids} are requested
+     */
+    Set<Long> parseIds(List<String> ids) {
+        int maxIds = multiGet.getMaxIds();
+        if (ids.isEmpty() || ids.size() > maxIds) {
+            throw new InvalidRequestException("Between 1 and " + maxIds + " IDs can be requested at once");
+        }
+        return ids.stream()
+                .map(BaseAnimal::parseId)
+                .filter(id -> id > 0)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    static <T extends Animal> List<AnimalLookup<T>> lookups(List<String> ids, Map<Long, T> found) {
+        return ids.stream()
+                .map(id -> AnimalLookup.of(id, found.get(BaseAnimal.parseId(id))))
+                .collect(Collectors.toList());
+    }
+
+    static long convertIdToLong(String id) {
+        return checkId(BaseAnimal.parseId(id));
+    }
+
+    static long checkId(long id) {
+        if (id <= 0) {
             throw new AnimalNotFoundException();
         }
+        return id;
+    }
+
+    static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Name order cursors carry the name as well, so the next page starts right after the last row in that order.
+     */
+    static String encodeCursor(AnimalSummary last, AnimalOrder order) {
+        if (order == AnimalOrder.CREATED) {
+            return encodeCursor(last.getId());
+        }
+        String position = last.getId() + ":" + last.getName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static AnimalSummary decodeCursor(String cursor, AnimalOrder order) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        if (order == AnimalOrder.CREATED) {
+            return new AnimalSummary(decodeCursor(cursor), null, null, null);
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = position.indexOf(':');
+            if (colon < 0) {
+                throw new InvalidRequestException("Invalid cursor");
+            }
+            return new AnimalSummary(Long.parseLong(position.substring(0, colon)), position.substring(colon + 1), null, null);
+        } catch (IllegalArgumentException iae) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+
+    static AnimalOrder parseSort(String sort) {
+        if (sort == null || sort.equalsIgnoreCase("created")) {
+            return AnimalOrder.CREATED;
+        }
+        if (sort.equalsIgnoreCase("name")) {
+            return AnimalOrder.NAME;
+        }
+        throw new InvalidRequestException("Sort must be created or name");
+    }
+
+    static String parseGroup(String group) {
+        if (group == null) {
+            return null;
+        }
+        try {
+            return Group.toGroup(group).name();
+        } catch (IllegalArgumentException iae) {
+            throw new InvalidRequestException("Invalid group");
+        }
+    }
+
+    static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException iae) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
     }
 }
@@ -2,10 +2,12 @@ package cx.catapult.animals.service;
 
 import cx.catapult.animals.domain.Cat;
 import cx.catapult.animals.domain.Group;
-import cx.catapult.animals.repository.AnimalRepository;
+import cx.catapult.animals.repository.AnimalStore;
 import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 
@@ -15,33 +17,30 @@ import static cx.catapult.animals.domain.BaseAnimal.CAT_STRING;
 public class CatsService extends BaseService<Cat> {
 
     @Autowired
-    public CatsService(final AnimalRepository animalRepository) {
+    public CatsService(final AnimalStore animalRepository) {
         super(animalRepository);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Cat> all() {
-        return convertedList(animalRepository.findByAnimalType(CAT_STRING));
+        return convertedList(animalRepository.findSummariesByAnimalType(CAT_STRING));
     }
 
     @Override
-    Cat convertEntityToDomainObject(AnimalEntity animalEntity) {
-        return Cat.builder()
-                .description(animalEntity.getDescription())
-                .id(animalEntity.getId().toString())
-                .name(animalEntity.getName())
-                .group(Group.toGroup(animalEntity.getGroup()))
-                .build();
+    String getAnimalType() {
+        return CAT_STRING;
+    }
+
+    @Override
+    Cat convertToDomainObject(AnimalSummary animalSummary) {
+        return new Cat(animalSummary.getId(), animalSummary.getName(), animalSummary.getDescription(),
+                Group.toGroup(animalSummary.getGroup()), animalSummary.getUpdatedDate(), animalSummary.getVersion());
     }
 
     @Override
     AnimalEntity convertDomainObjectToEntity(Cat animal) {
-        return AnimalEntity.builder()
-                .animalType(CAT_STRING)
-                .group(animal.getGroup().name())
-                .description(animal.getDescription())
-                .name(animal.getName())
-                .build();
+        return new AnimalEntity(null, animal.getName(), animal.getDescription(), CAT_STRING, animal.getGroup().name(), null, null, null);
     }
 
 }
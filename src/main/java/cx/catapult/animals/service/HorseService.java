@@ -2,10 +2,12 @@ package cx.catapult.animals.service;
 
 import cx.catapult.animals.domain.Group;
 import cx.catapult.animals.domain.Horse;
-import cx.catapult.animals.repository.AnimalRepository;
+import cx.catapult.animals.repository.AnimalStore;
 import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 
@@ -15,32 +17,29 @@ import static cx.catapult.animals.domain.BaseAnimal.HORSE_STRING;
 public class HorseService extends BaseService<Horse> {
 
     @Autowired
-    public HorseService(AnimalRepository animalRepository) {
+    public HorseService(AnimalStore animalRepository) {
         super(animalRepository);
     }
 
     @Override
-    Horse convertEntityToDomainObject(AnimalEntity animalEntity) {
-        return Horse.builder()
-                .description(animalEntity.getDescription())
-                .id(animalEntity.getId().toString())
-                .name(animalEntity.getName())
-                .group(Group.toGroup(animalEntity.getGroup()))
-                .build();
+    String getAnimalType() {
+        return HORSE_STRING;
+    }
+
+    @Override
+    Horse convertToDomainObject(AnimalSummary animalSummary) {
+        return new Horse(animalSummary.getId(), animalSummary.getName(), animalSummary.getDescription(),
+                Group.toGroup(animalSummary.getGroup()), animalSummary.getUpdatedDate(), animalSummary.getVersion());
     }
 
     @Override
     AnimalEntity convertDomainObjectToEntity(Horse animal) {
-        return AnimalEntity.builder()
-                .animalType(HORSE_STRING)
-                .group(animal.getGroup().name())
-                .description(animal.getDescription())
-                .name(animal.getName())
-                .build();
+        return new AnimalEntity(null, animal.getName(), animal.getDescription(), HORSE_STRING, animal.getGroup().name(), null, null, null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Horse> all() {
-        return convertedList(animalRepository.findByAnimalType(HORSE_STRING));
+        return convertedList(animalRepository.findSummariesByAnimalType(HORSE_STRING));
     }
 }
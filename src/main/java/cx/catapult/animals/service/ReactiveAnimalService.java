@@ -0,0 +1,184 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.domain.Animal;
+import cx.catapult.animals.domain.AnimalLookup;
+import cx.catapult.animals.domain.AnimalPage;
+import cx.catapult.animals.exception.AnimalNotFoundException;
+import cx.catapult.animals.exception.PreconditionFailedException;
+import cx.catapult.animals.repository.ReactiveAnimalRepository;
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reactive counterpart of {@link BaseService} for the reactive profile. Reuses the type and the domain mapping of the
+ * blocking service for the same animal type and reads the collection version from the same version row, so both
+ * stacks return identical payloads and versions.
+ */
+public class ReactiveAnimalService<T extends Animal> {
+
+    private final ReactiveAnimalRepository animalRepository;
+    private final BaseService<T> service;
+
+    public ReactiveAnimalService(ReactiveAnimalRepository animalRepository, BaseService<T> service) {
+        this.animalRepository = animalRepository;
+        this.service = service;
+    }
+
+    public Mono<String> getVersion() {
+        return animalRepository.findCollectionVersion(service.getAnimalType()).map(BaseService::versionToken);
+    }
+
+    public Flux<T> all() {
+        return animalRepository.findSummariesByAnimalType(service.getAnimalType()).map(service::convertToDomainObject);
+    }
+
+    public Mono<AnimalPage<T>> page(String after, int limit) {
+        Long id = BaseService.decodeCursor(after);
+        return animalRepository.findSummariesByAnimalTypeAndIdGreaterThan(service.getAnimalType(), id, limit + 1)
+                .collectList()
+                .map(animals -> {
+                    String next = null;
+                    if (animals.size() > limit) {
+                        animals = animals.subList(0, limit);
+                        next = BaseService.encodeCursor(animals.get(limit - 1).getId());
+                    }
+                    return new AnimalPage<>(service.convertedList(animals), next);
+                });
+    }
+
+    public Mono<T> get(String id) {
+        return Mono.defer(() -> animalRepository.findSummaryById(service.getAnimalType(), BaseService.convertIdToLong(id)))
+                .map(service::convertToDomainObject)
+                .switchIfEmpty(Mono.error(AnimalNotFoundException::new));
+    }
+
+    /**
+     * Looks the animals up with one query, as {@link BaseService#getAll} does, though without the cache.
+     */
+    public Mono<List<AnimalLookup<T>>> getAll(List<String> ids) {
+        return Mono.defer(() -> {
+            Set<Long> animalIds = service.parseIds(ids);
+            Flux<AnimalSummary> found = animalIds.isEmpty() ? Flux.empty()
+                    : animalRepository.findSummariesByAnimalTypeAndIdIn(service.getAnimalType(), animalIds);
+            return found.map(service::convertToDomainObject)
+                    .collectMap(Animal::getNumericId)
+                    .map(animals -> BaseService.lookups(ids, animals));
+        });
+    }
+
+    /**
+     * Answered from the blocking service's in-memory search index, which this service keeps current as well.
+     */
+    public Flux<T> search(String query, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(service.search(query, limit)));
+    }
+
+    public Mono<T> create(T animal) {
+        AnimalEntity animalEntity = service.convertDomainObjectToEntity(animal);
+        return animalRepository.insert(animalEntity)
+                .map(id -> new AnimalSummary(id, animalEntity.getName(), animalEntity.getDescription(), animalEntity.getGroup()))
+                .doOnSuccess(created -> {
+                    service.indexed(Collections.singletonList(created));
+                })
+                .map(service::convertToDomainObject);
+    }
+
+    public Mono<List<String>> createAll(List<T> animals) {
+        List<AnimalEntity> animalEntities = animals.stream().map(service::convertDomainObjectToEntity).collect(Collectors.toList());
+        return animalRepository.insertAll(animalEntities)
+                .collectList()
+                .doOnSuccess(ids -> {
+                    List<AnimalSummary> created = new ArrayList<>(ids.size());
+                    for (int i = 0; i < ids.size(); i++) {
+                        AnimalEntity animalEntity = animalEntities.get(i);
+                        created.add(new AnimalSummary(ids.get(i), animalEntity.getName(), animalEntity.getDescription(),
+                                animalEntity.getGroup()));
+                    }
+                    service.indexed(created);
+                })
+                .map(ids -> ids.stream().map(String::valueOf).collect(Collectors.toList()));
+    }
+
+    /**
+     * Checks the version the animal carries, if any, as {@link BaseService#update} does.
+     */
+    public Mono<Void> update(T animal) {
+        return Mono.defer(() -> {
+            long id = BaseService.checkId(animal.getNumericId());
+            Long expectedVersion = animal.getVersion();
+            if (expectedVersion == null) {
+                return animalRepository.updateNameAndDescription(service.getAnimalType(), id, animal.getName(),
+                        animal.getDescription(), LocalDateTime.now())
+                        .flatMap(rows -> changed(rows, () -> service.reindexed(id, animal.getName(), animal.getDescription())));
+            }
+            return animalRepository.updateNameAndDescriptionIfVersion(service.getAnimalType(), id, expectedVersion,
+                    animal.getName(), animal.getDescription(), LocalDateTime.now())
+                    .flatMap(rows -> {
+                        if (rows == 0) {
+                            return Mono.error(new PreconditionFailedException());
+                        }
+                        animal.setVersion(expectedVersion + 1);
+                        return changed(rows, () -> service.reindexed(id, animal.getName(), animal.getDescription()));
+                    });
+        });
+    }
+
+    /**
+     * Patches as {@link BaseService#patch} does.
+     */
+    public Mono<T> patch(T changes) {
+        return Mono.defer(() -> patch(BaseService.checkId(changes.getNumericId()), changes, 1));
+    }
+
+    private Mono<T> patch(long id, T changes, int attempt) {
+        return animalRepository.findSummaryById(service.getAnimalType(), id)
+                .switchIfEmpty(Mono.error(AnimalNotFoundException::new))
+                .map(service::convertToDomainObject)
+                .flatMap(current -> {
+                    BaseService.checkVersion(changes, current);
+                    String name = BaseService.changedValue(current.getName(), changes.getName());
+                    String description = BaseService.changedValue(current.getDescription(), changes.getDescription());
+                    if (name == null && description == null) {
+                        return Mono.just(current);
+                    }
+                    LocalDateTime now = LocalDateTime.now();
+                    return animalRepository.patchIfVersion(service.getAnimalType(), id, current.getVersion(), name, description, now)
+                            .flatMap(rows -> {
+                                if (rows == 1) {
+                                    BaseService.patched(current, name, description, now);
+                                    return changed(rows, () -> service.reindexed(id, current.getName(), current.getDescription()))
+                                            .thenReturn(current);
+                                }
+                                if (changes.getVersion() != null || attempt == BaseService.MAX_PATCH_ATTEMPTS) {
+                                    return Mono.error(new PreconditionFailedException());
+                                }
+                                return patch(id, changes, attempt + 1);
+                            });
+                });
+    }
+
+    public Mono<Void> delete(String id) {
+        return Mono.defer(() -> {
+            long animalId = BaseService.convertIdToLong(id);
+            return animalRepository.deleteAnimalById(service.getAnimalType(), animalId)
+                    .flatMap(rows -> changed(rows, () -> service.unindexed(animalId)));
+        });
+    }
+
+    private Mono<Void> changed(int rows, Runnable reindex) {
+        if (rows == 0) {
+            return Mono.error(new AnimalNotFoundException());
+        }
+        reindex.run();
+        return Mono.empty();
+    }
+}
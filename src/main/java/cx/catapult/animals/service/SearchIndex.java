@@ -0,0 +1,357 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.repository.entity.AnimalSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+
+/**
+ * In-process search over the names and descriptions of one animal type. Both fields are split into lower case
+ * words, and every word points at the animals using it. A query word matches a word it is a prefix of, or, from
+ * three characters on, a word it is a substring of: prefixes come from a range of the sorted vocabulary and
+ * substrings from a trigram index over the vocabulary, so neither looks at the animals themselves.
+ * <p>
+ * The query word with the fewest candidates drives the search. Its exact, then prefix, then substring matches are
+ * checked against every query word and ranked, looking at no more than {@link #MAX_CANDIDATES} animals, so a query
+ * matching most of the index costs the same as one matching a few thousand. Ranking prefers name over description
+ * matches, whole words over prefixes over substrings, then shorter names and lower IDs.
+ * <p>
+ * Searches never lock. Writes are serialized and replace an animal's entry as a whole. Removed or renamed animals
+ * stay in the lists of their old words until half of a list is stale, and searches skip them meanwhile.
+ */
+final class SearchIndex {
+
+    static final int MAX_CANDIDATES = 10_000;
+
+    private static final int GRAM = 3;
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt((Hit hit) -> hit.score)
+            .thenComparingInt(hit -> -hit.doc.name.length())
+            .thenComparingLong(hit -> -hit.doc.summary.getId());
+
+    private final ConcurrentMap<Long, Doc> docs = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Set<String>> grams = new ConcurrentHashMap<>();
+
+    int size() {
+        return docs.size();
+    }
+
+    /**
+     * Adds the animal or replaces its entry.
+     */
+    synchronized void put(AnimalSummary animal) {
+        Doc doc = new Doc(new AnimalSummary(animal.getId(), animal.getName(), animal.getDescription(), animal.getGroup()));
+        Doc previous = docs.put(doc.summary.getId(), doc);
+        for (String term : doc.terms) {
+            if (previous == null || !previous.has(term)) {
+                terms.computeIfAbsent(term, this::addTerm).append(doc.summary.getId());
+            }
+        }
+        if (previous != null) {
+            dropTerms(previous, doc);
+        }
+    }
+
+    /**
+     * Changes the name and description of an indexed animal, keeping its group. Does nothing for an unknown ID.
+     */
+    synchronized void update(long id, String name, String description) {
+        Doc doc = docs.get(id);
+        if (doc != null) {
+            put(new AnimalSummary(id, name, description, doc.summary.getGroup()));
+        }
+    }
+
+    /**
+     * @return the removed animal, or null for an unknown ID
+     */
+    synchronized AnimalSummary remove(long id) {
+        Doc previous = docs.remove(id);
+        if (previous == null) {
+            return null;
+        }
+        dropTerms(previous, null);
+        return previous.summary;
+    }
+
+    /**
+     * @return up to {@code limit} animals matching every word of the query, best match first
+     */
+    List<AnimalSummary> search(String query, int limit) {
+        String[] words = words(query.toLowerCase(Locale.ROOT));
+        if (words.length == 0) {
+            return Collections.emptyList();
+        }
+        List<Postings> driver = null;
+        long fewest = Long.MAX_VALUE;
+        for (String word : words) {
+            List<Postings> matching = new ArrayList<>();
+            long candidates = matchingTerms(word, matching);
+            if (candidates < fewest) {
+                fewest = candidates;
+                driver = matching;
+            }
+        }
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING);
+        Set<Long> seen = new HashSet<>();
+        for (Postings postings : driver) {
+            Postings.Slice slice = postings.slice;
+            for (int i = 0; i < slice.size; i++) {
+                if (seen.size() == MAX_CANDIDATES) {
+                    return ranked(top);
+                }
+                if (!seen.add(slice.ids[i])) {
+                    continue;
+                }
+                Doc doc = docs.get(slice.ids[i]);
+                int score = doc == null ? 0 : doc.score(words);
+                if (score > 0) {
+                    top.add(new Hit(doc, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+        return ranked(top);
+    }
+
+    /**
+     * Collects the lists of the vocabulary words the query word matches, exact match first, then prefix and then substring
+     * matches, and stops once they cover {@link #MAX_CANDIDATES} animals.
+     *
+     * @return how many animals the collected words point at, counting stale entries
+     */
+    private long matchingTerms(String word, List<Postings> matching) {
+        long candidates = 0;
+        Postings exact = terms.get(word);
+        if (exact != null) {
+            matching.add(exact);
+            candidates += exact.slice.size;
+        }
+        for (Map.Entry<String, Postings> prefixed
+                : terms.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+            if (candidates >= MAX_CANDIDATES) {
+                return candidates;
+            }
+            matching.add(prefixed.getValue());
+            candidates += prefixed.getValue().slice.size;
+        }
+        if (word.length() < GRAM) {
+            return candidates;
+        }
+        Set<String> rarest = null;
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            Set<String> containing = grams.get(word.substring(i, i + GRAM));
+            if (containing == null) {
+                return candidates;
+            }
+            if (rarest == null || containing.size() < rarest.size()) {
+                rarest = containing;
+            }
+        }
+        for (String term : rarest) {
+            if (candidates >= MAX_CANDIDATES) {
+                return candidates;
+            }
+            // Checking the word first spares a vocabulary lookup for every term that only shares the trigram.
+            Postings postings = term.startsWith(word) || !term.contains(word) ? null : terms.get(term);
+            if (postings != null) {
+                matching.add(postings);
+                candidates += postings.slice.size;
+            }
+        }
+        return candidates;
+    }
+
+    private static List<AnimalSummary> ranked(PriorityQueue<Hit> top) {
+        AnimalSummary[] ranked = new AnimalSummary[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = top.poll().doc.summary;
+        }
+        return Arrays.asList(ranked);
+    }
+
+    private Postings addTerm(String term) {
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.computeIfAbsent(term.substring(i, i + GRAM), gram -> ConcurrentHashMap.newKeySet()).add(term);
+        }
+        return new Postings();
+    }
+
+    /**
+     * Marks the words of the old entry the new one no longer uses, dropping words no animal uses any more.
+     */
+    private void dropTerms(Doc previous, Doc doc) {
+        for (String term : previous.terms) {
+            if (doc != null && doc.has(term)) {
+                continue;
+            }
+            Postings postings = terms.get(term);
+            if (postings.removed(id -> {
+                Doc current = docs.get(id);
+                return current != null && current.has(term);
+            }) == 0) {
+                terms.remove(term);
+                for (int i = 0; i + GRAM <= term.length(); i++) {
+                    grams.computeIfPresent(term.substring(i, i + GRAM), (gram, containing) -> {
+                        containing.remove(term);
+                        return containing.isEmpty() ? null : containing;
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the distinct words of the text in order of appearance
+     */
+    static String[] words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * @return 3 when the word occurs as a whole word, 2 as the start of a word, 1 inside a word when it has at
+     * least three characters, otherwise 0
+     */
+    static int match(String text, String word) {
+        int best = 0;
+        for (int at = text.indexOf(word); at >= 0 && best < 3; at = text.indexOf(word, at + 1)) {
+            boolean starts = at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1));
+            int end = at + word.length();
+            boolean ends = end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+            best = Math.max(best, starts ? (ends ? 3 : 2) : (word.length() >= GRAM ? 1 : 0));
+        }
+        return best;
+    }
+
+    private static final class Doc {
+        final AnimalSummary summary;
+        final String name;
+        final String description;
+        final String[] terms;
+
+        Doc(AnimalSummary summary) {
+            this.summary = summary;
+            this.name = summary.getName().toLowerCase(Locale.ROOT);
+            this.description = summary.getDescription().toLowerCase(Locale.ROOT);
+            Set<String> terms = new TreeSet<>(Arrays.asList(words(name)));
+            terms.addAll(Arrays.asList(words(description)));
+            this.terms = terms.toArray(new String[0]);
+        }
+
+        boolean has(String term) {
+            return Arrays.binarySearch(terms, term) >= 0;
+        }
+
+        /**
+         * @return 0 unless every word matches the name or the description, name matches weighing four times more
+         */
+        int score(String[] words) {
+            int score = 0;
+            for (String word : words) {
+                int matched = Math.max(4 * match(name, word), match(description, word));
+                if (matched == 0) {
+                    return 0;
+                }
+                score += matched;
+            }
+            return score;
+        }
+    }
+
+    private static final class Hit {
+        final Doc doc;
+        final int score;
+
+        Hit(Doc doc, int score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    /**
+     * IDs of the animals using one word. Appended under the index monitor and read through an immutable
+     * {@link Slice}, the same way as the in-memory store's type index.
+     */
+    private static final class Postings {
+        volatile Slice slice = new Slice(new long[4], 0);
+        private int stale;
+
+        void append(long id) {
+            Slice current = slice;
+            long[] ids = current.ids;
+            if (current.size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[current.size] = id;
+            slice = new Slice(ids, current.size + 1);
+        }
+
+        /**
+         * Records that one of the IDs no longer uses the word and compacts once half of the list is stale. An
+         * animal that dropped the word and took it up again is listed twice until then, and compaction keeps one.
+         *
+         * @return the size of the list once compacted, or a positive number when not compacted yet
+         */
+        int removed(LongPredicate present) {
+            Slice current = slice;
+            if (++stale * 2 < current.size) {
+                return current.size;
+            }
+            long[] ids = new long[current.size];
+            int size = 0;
+            for (int i = 0; i < current.size; i++) {
+                if (present.test(current.ids[i])) {
+                    ids[size++] = current.ids[i];
+                }
+            }
+            Arrays.sort(ids, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            stale = 0;
+            slice = new Slice(Arrays.copyOf(ids, Math.max(4, distinct)), distinct);
+            return distinct;
+        }
+
+        static final class Slice {
+            final long[] ids;
+            final int size;
+
+            Slice(long[] ids, int size) {
+                this.ids = ids;
+                this.size = size;
+            }
+        }
+    }
+}
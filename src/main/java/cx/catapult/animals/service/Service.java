@@ -1,19 +1,84 @@
 package cx.catapult.animals.service;
 
 import cx.catapult.animals.domain.Animal;
+import cx.catapult.animals.domain.AnimalLookup;
+import cx.catapult.animals.domain.AnimalPage;
+import cx.catapult.animals.domain.EncodedAnimal;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public interface Service<T extends Animal> {
 
     Collection<T> all();
 
+    /**
+     * @return an opaque token read from the type's version row in the store, which every create, update and delete of
+     * an animal of this type bumps in the same transaction, whichever instance or queued batch writes it
+     */
+    String getVersion();
+
+    /**
+     * Runs {@code read} in one read-only transaction, so a version and a collection read in it come from the same
+     * snapshot of the same database.
+     */
+    <R> R readConsistently(Supplier<R> read);
+
+    AnimalPage<T> page(String after, int limit);
+
+    /**
+     * @param group only animals of this group, or of every group when null
+     * @param sort {@code created}, the default, or {@code name}
+     */
+    Collection<T> all(String group, String sort);
+
+    AnimalPage<T> page(String after, int limit, String group, String sort);
+
+    void export(Consumer<? super T> consumer);
+
+    /**
+     * @return up to {@code limit} animals whose name or description matches every word of the query by prefix or,
+     * for words of three or more characters, by substring, best match first
+     */
+    List<T> search(String query, int limit);
+
     T create(T animal);
 
+    List<String> createAll(List<T> animals);
+
     T get(String id);
 
+    /**
+     * Looks up several animals at once, with a single query for those not cached.
+     *
+     * @return one lookup per requested ID, in request order, duplicates included
+     */
+    List<AnimalLookup<T>> getAll(List<String> ids);
+
+    /**
+     * Gets the animal encoded by {@code encoder}. When response caching is enabled the encoding is kept until the
+     * animal changes, so later calls reuse it without loading the animal.
+     */
+    EncodedAnimal get(String id, Function<? super T, EncodedAnimal> encoder);
+
+    /**
+     * @return the kept encoding of the animal, or null when there is none or response caching is off
+     */
+    EncodedAnimal getEncodedIfPresent(String id);
+
     void delete(String id);
 
     void update(T animal);
 
+    /**
+     * Applies the name and description of {@code changes} that are not null to the animal with its ID, only while
+     * the animal is at the version {@code changes} carries, if any.
+     *
+     * @return the animal as patched, or as stored when nothing changed
+     */
+    T patch(T changes);
+
 }
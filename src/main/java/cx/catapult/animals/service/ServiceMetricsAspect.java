@@ -0,0 +1,54 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.exception.AnimalNotFoundException;
+import cx.catapult.animals.exception.InvalidRequestException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Times every {@link Service} call as {@code animals.service}, tagged with the animal type, the method and the
+ * outcome: {@code success}, {@code not_found}, {@code invalid} or {@code error}. That includes
+ * {@link Service#getVersion()}, which reads the type's version row on every collection request.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    static final String METRIC = "animals.service";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * cx.catapult.animals.service.Service+.*(..)) && target(service)")
+    public Object time(ProceedingJoinPoint joinPoint, BaseService<?> service) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (AnimalNotFoundException e) {
+            outcome = "not_found";
+            throw e;
+        } catch (InvalidRequestException e) {
+            outcome = "invalid";
+            throw e;
+        } catch (Throwable t) {
+            outcome = "error";
+            throw t;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .tag("type", service.getAnimalType().toLowerCase(Locale.ROOT))
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
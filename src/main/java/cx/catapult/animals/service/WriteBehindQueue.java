@@ -0,0 +1,291 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.exception.AnimalNotFoundException;
+import cx.catapult.animals.repository.AnimalStore;
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the creates and updates of one animal type and writes them on a background thread, one transaction per
+ * batch: creates through {@link AnimalStore#insertAll} and updates through {@link AnimalStore#updateAll}. A batch is
+ * written once {@code batchSize} writes are pending or every {@code flushInterval}, whichever comes first. Updates
+ * of an ID that is still queued are merged into the pending one, so the last write wins and every caller is
+ * acknowledged by the same flush. When {@code capacity} writes are pending, callers wait up to
+ * {@code enqueueTimeout} for room and are then rejected. Writes made around the queue, such as versioned updates,
+ * first {@link #flush(long) flush} the pending update of their ID so a queued write cannot overtake them.
+ * <p>
+ * Meters, all tagged with {@code type}: {@code animals.write.behind.depth} (pending writes),
+ * {@code animals.write.behind.flush} (batch transaction time), {@code animals.write.behind.rows} (writes per batch),
+ * {@code animals.write.behind.merged}, {@code animals.write.behind.rejected} and {@code animals.write.behind.failed}.
+ */
+class WriteBehindQueue {
+
+    static final String METRIC = "animals.write.behind";
+
+    private final String animalType;
+    private final AnimalStore store;
+    private final TransactionOperations transactions;
+    private final Consumer<List<AnimalEntity>> onUpdated;
+    private final int capacity;
+    private final int batchSize;
+    private final long enqueueTimeoutNanos;
+    private final ScheduledExecutorService flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private List<PendingCreate> creates = new ArrayList<>();
+    private Map<Long, PendingUpdate> updates = new LinkedHashMap<>();
+    private boolean open = true;
+
+    private final Timer flushTimer;
+    private final DistributionSummary rows;
+    private final Counter merged;
+    private final Counter rejected;
+    private final Counter failed;
+
+    /**
+     * @param onUpdated called after each committed batch of updates with the animals it found and updated, as last
+     *                  written
+     */
+    WriteBehindQueue(String animalType, AnimalsProperties.WriteBehind settings, AnimalStore store,
+                     TransactionOperations transactions, Consumer<List<AnimalEntity>> onUpdated,
+                     MeterRegistry meterRegistry) {
+        String type = animalType.toLowerCase(Locale.ROOT);
+        this.animalType = animalType;
+        this.store = store;
+        this.transactions = transactions;
+        this.onUpdated = onUpdated;
+        this.capacity = settings.getCapacity();
+        this.batchSize = settings.getBatchSize();
+        this.enqueueTimeoutNanos = settings.getEnqueueTimeout().toNanos();
+        Gauge.builder(METRIC + ".depth", this, WriteBehindQueue::depth).tag("type", type).register(meterRegistry);
+        this.flushTimer = Timer.builder(METRIC + ".flush").tag("type", type).register(meterRegistry);
+        this.rows = DistributionSummary.builder(METRIC + ".rows").baseUnit("rows").tag("type", type).register(meterRegistry);
+        this.merged = Counter.builder(METRIC + ".merged").tag("type", type).register(meterRegistry);
+        this.rejected = Counter.builder(METRIC + ".rejected").tag("type", type).register(meterRegistry);
+        this.failed = Counter.builder(METRIC + ".failed").tag("type", type).register(meterRegistry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("animals-write-behind-" + type + "-"));
+        long interval = settings.getFlushInterval().toNanos();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return completes with the generated ID once the batch holding the animal has committed
+     */
+    CompletableFuture<Long> create(AnimalEntity animal) {
+        PendingCreate pending = new PendingCreate(animal);
+        lock.lock();
+        try {
+            awaitRoom();
+            creates.add(pending);
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+        return pending.done;
+    }
+
+    /**
+     * @return completes once the batch holding the update has committed, exceptionally with
+     * {@link AnimalNotFoundException} when no animal has the ID
+     */
+    CompletableFuture<Void> update(long id, String name, String description) {
+        AnimalEntity animal = new AnimalEntity(id, name, description, animalType, null, null, LocalDateTime.now(), null);
+        lock.lock();
+        try {
+            PendingUpdate pending = updates.get(id);
+            if (pending != null) {
+                pending.animal = animal;
+                merged.increment();
+                return pending.done;
+            }
+            awaitRoom();
+            pending = new PendingUpdate(animal);
+            updates.put(id, pending);
+            flushIfFull();
+            return pending.done;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int depth() {
+        lock.lock();
+        try {
+            return creates.size() + updates.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops taking writes and flushes whatever is still queued on the calling thread.
+     */
+    void close() {
+        lock.lock();
+        try {
+            open = false;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.shutdown();
+        flush();
+    }
+
+    private void awaitRoom() {
+        long nanos = enqueueTimeoutNanos;
+        try {
+            while (open && creates.size() + updates.size() >= capacity) {
+                if (nanos <= 0) {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Write-behind queue is full");
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the write-behind queue", e);
+        }
+        if (!open) {
+            throw new RejectedExecutionException("Write-behind queue is closed");
+        }
+    }
+
+    private void flushIfFull() {
+        if (creates.size() + updates.size() >= batchSize) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Synchronized so batches, and with them successive updates of one ID, are written in the order they were taken.
+     */
+    synchronized void flush() {
+        List<PendingCreate> pendingCreates;
+        List<PendingUpdate> pendingUpdates;
+        lock.lock();
+        try {
+            pendingCreates = creates;
+            pendingUpdates = new ArrayList<>(updates.values());
+            creates = new ArrayList<>();
+            updates = new LinkedHashMap<>();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (int from = 0; from < pendingCreates.size(); from += batchSize) {
+            writeCreates(pendingCreates.subList(from, Math.min(from + batchSize, pendingCreates.size())));
+        }
+        for (int from = 0; from < pendingUpdates.size(); from += batchSize) {
+            writeUpdates(pendingUpdates.subList(from, Math.min(from + batchSize, pendingUpdates.size())));
+        }
+    }
+
+    /**
+     * Writes the pending update of the ID, if any, on the calling thread. Synchronized like {@link #flush()}, so it
+     * also waits for a batch that is being written, which may hold an earlier update of the ID.
+     */
+    synchronized void flush(long id) {
+        PendingUpdate pending;
+        lock.lock();
+        try {
+            pending = updates.remove(id);
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (pending != null) {
+            writeUpdates(Collections.singletonList(pending));
+        }
+    }
+
+    private void writeCreates(List<PendingCreate> batch) {
+        List<AnimalEntity> animals = batch.stream().map(pending -> pending.animal).collect(Collectors.toList());
+        List<Long> ids;
+        try {
+            ids = flushTimer.record(() -> transactions.execute(status -> store.insertAll(animals)));
+        } catch (RuntimeException e) {
+            fail(batch.stream().map(pending -> pending.done).collect(Collectors.toList()), e);
+            return;
+        }
+        rows.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).done.complete(ids.get(i));
+        }
+    }
+
+    private void writeUpdates(List<PendingUpdate> batch) {
+        List<AnimalEntity> animals = batch.stream().map(pending -> pending.animal).collect(Collectors.toList());
+        int[] counts;
+        try {
+            counts = flushTimer.record(() -> transactions.execute(status -> store.updateAll(animals)));
+        } catch (RuntimeException e) {
+            fail(batch.stream().map(pending -> pending.done).collect(Collectors.toList()), e);
+            return;
+        }
+        rows.record(batch.size());
+        List<AnimalEntity> updated = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts[i] > 0) {
+                updated.add(animals.get(i));
+            }
+        }
+        onUpdated.accept(updated);
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts[i] == 0) {
+                batch.get(i).done.completeExceptionally(new AnimalNotFoundException());
+            } else {
+                batch.get(i).done.complete(null);
+            }
+        }
+    }
+
+    private void fail(List<? extends CompletableFuture<?>> futures, RuntimeException e) {
+        failed.increment(futures.size());
+        futures.forEach(future -> future.completeExceptionally(e));
+    }
+
+    private static final class PendingCreate {
+        final AnimalEntity animal;
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+
+        PendingCreate(AnimalEntity animal) {
+            this.animal = animal;
+        }
+    }
+
+    private static final class PendingUpdate {
+        AnimalEntity animal;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingUpdate(AnimalEntity animal) {
+            this.animal = animal;
+        }
+    }
+}
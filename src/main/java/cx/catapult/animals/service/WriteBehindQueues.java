@@ -0,0 +1,52 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.repository.AnimalStore;
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Builds the per animal type write-behind queues used by the services. Batches run in a transaction of their own
+ * when there is a transaction manager, which the {@code memory} profile does without. The services close their queue
+ * on shutdown, while the store they write to is still up.
+ */
+@Component
+@EnableConfigurationProperties(AnimalsProperties.class)
+public class WriteBehindQueues {
+
+    private final AnimalsProperties properties;
+    private final TransactionOperations transactions;
+    private final MeterRegistry meterRegistry;
+
+    public WriteBehindQueues(AnimalsProperties properties, ObjectProvider<PlatformTransactionManager> transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        PlatformTransactionManager manager = transactionManager.getIfUnique();
+        this.transactions = manager == null ? TransactionOperations.withoutTransaction() : new TransactionTemplate(manager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    AnimalsProperties.Ack getAck() {
+        return properties.getWriteBehind().getAck();
+    }
+
+    /**
+     * @return a queue writing the animal type to the store, or null when write-behind is not enabled
+     */
+    WriteBehindQueue create(String animalType, AnimalStore store, Consumer<List<AnimalEntity>> onUpdated) {
+        if (!properties.getWriteBehind().isEnabled()) {
+            return null;
+        }
+        return new WriteBehindQueue(animalType, properties.getWriteBehind(), store,
+                transactions, onUpdated, meterRegistry);
+    }
+}
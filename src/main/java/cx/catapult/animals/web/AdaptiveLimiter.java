@@ -0,0 +1,97 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.config.AnimalsProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the latency of the calls it admits, in the style of a gradient limiter. A short
+ * term average of the round trip time is compared with a long term one: while they agree the limit grows by a small
+ * queue allowance, and once the short term average rises above {@code tolerance} times the long term one the limit
+ * shrinks in proportion. Calls that end in an overload response back the limit off multiplicatively.
+ */
+class AdaptiveLimiter {
+
+    static final double SHORT_WEIGHT = 0.5;
+    static final double LONG_WEIGHT = 2.0 / 601;
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    AdaptiveLimiter(AnimalsProperties.Limiter limiter, AnimalsProperties.Limit limit) {
+        this.minLimit = Math.max(1, limit.getMinLimit());
+        this.maxLimit = Math.max(this.minLimit, limit.getMaxLimit());
+        this.tolerance = limiter.getTolerance();
+        this.smoothing = limiter.getSmoothing();
+        this.limit = clamp(limit.getInitialLimit());
+    }
+
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Returns the permit taken by {@link #tryAcquire()}. A negative round trip time releases without a sample.
+     */
+    void release(long rttNanos, boolean dropped) {
+        int admitted = inFlight.getAndDecrement();
+        if (dropped) {
+            backOff();
+        } else if (rttNanos >= 0) {
+            sample(rttNanos, admitted);
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void backOff() {
+        limit = clamp(limit * BACKOFF_RATIO);
+    }
+
+    private synchronized void sample(long rttNanos, int admitted) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_WEIGHT;
+        longRtt += (rttNanos - longRtt) * LONG_WEIGHT;
+        // After a sustained change the long term average lags far behind; let it catch up instead of holding the
+        // limit at its minimum for the whole window.
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        // Only grow when the current limit is actually being used, otherwise it drifts to the maximum while idle.
+        if (target > limit && admitted < limit / 2) {
+            return;
+        }
+        limit = clamp(limit * (1 - smoothing) + target * smoothing);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
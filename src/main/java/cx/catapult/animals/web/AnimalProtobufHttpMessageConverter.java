@@ -0,0 +1,105 @@
+package cx.catapult.animals.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import cx.catapult.animals.domain.Animal;
+import cx.catapult.animals.domain.AnimalPage;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes animal collections and pages as the {@code AnimalList} message of {@code proto/animals.proto}. Goes through
+ * Jackson's Protobuf backend, so the domain classes are encoded directly without generated message classes. A plain
+ * collection is written as a list without a next cursor. Requests are never read as Protobuf.
+ */
+public class AnimalProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String SCHEMA = "/proto/animals.proto";
+    public static final String ROOT_TYPE = "AnimalList";
+
+    private final ObjectWriter writer;
+
+    public AnimalProtobufHttpMessageConverter() throws IOException {
+        super(MediaType.parseMediaType(CollectionMediaTypes.PROTOBUF_VALUE));
+        ProtobufMapper mapper = new ProtobufMapper();
+        // The domain classes carry a few JSON-only properties the schema leaves out.
+        mapper.configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true);
+        this.writer = mapper.writer(schema());
+    }
+
+    /**
+     * @return the schema clients decode responses with, rooted at {@value #ROOT_TYPE}
+     */
+    public static ProtobufSchema schema() throws IOException {
+        try (InputStream in = AnimalProtobufHttpMessageConverter.class.getResourceAsStream(SCHEMA)) {
+            return ProtobufSchemaLoader.std.load(in, ROOT_TYPE);
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return AnimalPage.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    /**
+     * Only takes collections declared with an animal element type, so other collection responses stay JSON.
+     */
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        ResolvableType resolved = ResolvableType.forType(type == null ? clazz : type);
+        if (AnimalPage.class.isAssignableFrom(resolved.toClass())) {
+            return true;
+        }
+        Class<?> element = resolved.asCollection().resolveGeneric(0);
+        return element != null && Animal.class.isAssignableFrom(element);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Object list = body;
+        if (body instanceof Collection) {
+            Collection<Animal> animals = (Collection<Animal>) body;
+            list = new AnimalPage<>(animals instanceof List ? (List<Animal>) animals : new ArrayList<>(animals), null);
+        }
+        writer.writeValue(StreamUtils.nonClosing(outputMessage.getBody()), list);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+}
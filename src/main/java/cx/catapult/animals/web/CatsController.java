@@ -1,46 +1,164 @@
 package cx.catapult.animals.web;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cx.catapult.animals.domain.AnimalLookup;
+import cx.catapult.animals.domain.AnimalPage;
+import cx.catapult.animals.domain.EncodedAnimal;
 import cx.catapult.animals.domain.Cat;
+import cx.catapult.animals.exception.InvalidRequestException;
+import cx.catapult.animals.service.BaseService;
 import cx.catapult.animals.service.CatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
 
 @RestController
+@ConditionalOnWebApplication(type = SERVLET)
 @RequestMapping(path = "/api/1/cats", produces = MediaType.APPLICATION_JSON_VALUE)
+@Validated
 public class CatsController {
 
     @Autowired
     private CatsService service;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ServiceExecutor executor;
+    @Autowired
+    private EncodedResponses responses;
+    @Autowired
+    private ContentNegotiationManager contentNegotiationManager;
 
-    @GetMapping(value = "", produces = "application/json")
+    @GetMapping(value = "", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            CollectionMediaTypes.SMILE_VALUE, CollectionMediaTypes.PROTOBUF_VALUE})
     public @ResponseBody
-    Collection<Cat> all() {
-        return service.all();
+    CompletableFuture<ResponseEntity<Collection<Cat>>> all(@RequestParam(required = false) String group,
+                                                           @RequestParam(required = false) String sort,
+                                                           NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        String representation = CollectionETags.negotiate(request, contentNegotiationManager);
+        // One transaction reads the version and the body, so even a lagging replica answers a body at its version.
+        return executor.supply(() -> service.readConsistently(() -> CollectionETags.ok(request,
+                service.getVersion() + representation, () -> service.all(group, sort))));
+    }
+
+    @GetMapping(value = "", params = {"limit", "!ids"}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            CollectionMediaTypes.SMILE_VALUE, CollectionMediaTypes.PROTOBUF_VALUE})
+    public @ResponseBody
+    CompletableFuture<ResponseEntity<AnimalPage<Cat>>> page(@RequestParam @Min(value = 1, message = "Limit must be between 1 and " + AnimalPage.MAX_LIMIT)
+                                                            @Max(value = AnimalPage.MAX_LIMIT, message = "Limit must be between 1 and " + AnimalPage.MAX_LIMIT) int limit,
+                                                            @RequestParam(required = false) String after,
+                                                            @RequestParam(required = false) String group,
+                                                            @RequestParam(required = false) String sort,
+                                                            NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        String representation = CollectionETags.negotiate(request, contentNegotiationManager);
+        return executor.supply(() -> service.readConsistently(() -> CollectionETags.ok(request,
+                service.getVersion() + representation, () -> service.page(after, limit, group, sort))));
+    }
+
+    /**
+     * Answers {@code ?ids=1,2,3} with one lookup per ID in request order, marking those not found.
+     */
+    @GetMapping(value = "", params = {"ids", "!limit"}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            CollectionMediaTypes.SMILE_VALUE})
+    public @ResponseBody
+    CompletableFuture<List<AnimalLookup<Cat>>> getAll(@RequestParam List<String> ids) {
+        return executor.supply(() -> service.getAll(ids));
+    }
+
+    /**
+     * Rejects {@code ?ids} with {@code ?limit}, which would otherwise match both the multi-get and the page.
+     */
+    @GetMapping(value = "", params = {"ids", "limit"}, produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, CollectionMediaTypes.SMILE_VALUE})
+    public void getAllWithLimit() {
+        throw new InvalidRequestException("Ids cannot be combined with limit");
+    }
+
+    @GetMapping(value = "/search")
+    public @ResponseBody
+    List<Cat> search(@RequestParam @NotBlank(message = "Query cannot be blank") String q,
+                    @RequestParam(defaultValue = "10") @Min(value = 1, message = "Limit must be between 1 and " + BaseService.MAX_SEARCH_LIMIT)
+                    @Max(value = BaseService.MAX_SEARCH_LIMIT, message = "Limit must be between 1 and " + BaseService.MAX_SEARCH_LIMIT) int limit) {
+        // Answered from the in-memory search index, so there is no database work to hand to the executor.
+        return service.search(q, limit);
+    }
+
+    @GetMapping(value = "/export", produces = NdJsonWriter.MEDIA_TYPE)
+    public void export(HttpServletResponse response) throws IOException {
+        response.setContentType(NdJsonWriter.MEDIA_TYPE);
+        NdJsonWriter writer = new NdJsonWriter(objectMapper, response.getOutputStream());
+        service.export(writer);
+        writer.flush();
     }
 
     @GetMapping(value = "/{id}")
     public @ResponseBody
-    Cat get(@PathVariable String id) {
-        return service.get(id);
+    CompletableFuture<ResponseEntity<byte[]>> get(@PathVariable String id,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // If-None-Match is compared when the response is built, so the ETag of either coding matches; Last-Modified is
+        // compared against the request once the entity is returned.
+        // A cached body needs no database work, so it is answered without going through the executor.
+        EncodedAnimal cached = service.getEncodedIfPresent(id);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(responses.ok(cached, acceptEncoding, ifNoneMatch));
+        }
+        return executor.supply(() -> responses.ok(service.get(id, responses::encode), acceptEncoding, ifNoneMatch));
     }
 
     @PostMapping(value = "", consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
     public @ResponseBody
-    Cat
+    CompletableFuture<Cat>
     create(@RequestBody Cat cat) {
-        return service.create(cat);
+        return executor.supply(() -> service.create(cat));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public @ResponseBody
+    CompletableFuture<List<String>> createAll(@RequestBody @Size(min = 1, max = BaseService.MAX_BATCH_SIZE, message = "Batch must contain between 1 and " + BaseService.MAX_BATCH_SIZE + " records")
+                                              List<@NotNull(message = "Record cannot be null") @Valid Cat> cats) {
+        return executor.supply(() -> service.createAll(cats));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MergePatches.MEDIA_TYPE)
+    public @ResponseBody
+    CompletableFuture<ResponseEntity<Cat>> patch(@PathVariable String id, @RequestBody JsonNode patch,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Cat changes = MergePatches.read(patch, Cat.builder().id(id).build());
+        changes.setVersion(ETags.expectedVersion(changes, ifMatch));
+        return executor.supply(() -> ETags.ok(service.patch(changes)));
     }
 
     @PutMapping(value = "", consumes = MediaType.APPLICATION_JSON_VALUE)
-    @ResponseStatus(HttpStatus.ACCEPTED)
     public @ResponseBody
-    void update(@RequestBody @Valid Cat cat) {
-        service.update(cat);
+    CompletableFuture<ResponseEntity<Void>> update(@RequestBody @Valid Cat cat,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        cat.setVersion(ETags.expectedVersion(cat, ifMatch));
+        return executor.run(() -> service.update(cat)).thenApply(updated -> ETags.accepted(cat));
     }
 }
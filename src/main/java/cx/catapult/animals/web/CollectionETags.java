@@ -0,0 +1,91 @@
+package cx.catapult.animals.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Validators for the collection endpoints. Each of them writes the same collection version in several media types,
+ * and a strong ETag promises byte-for-byte identical bodies, so the ETag names the media type the body is written in
+ * as well as the version, e.g. {@code "2-14-11;cbor"}. Responses carry {@code Vary: Accept} so caches keep the
+ * representations apart too.
+ */
+final class CollectionETags {
+
+    private CollectionETags() {
+    }
+
+    /**
+     * Adds {@code Vary: Accept} and negotiates the representation on the request thread, where the producible types
+     * are known.
+     *
+     * @return what {@link #of(String, List, Collection)} appends to the version for the negotiated representation
+     */
+    static String negotiate(NativeWebRequest request, ContentNegotiationManager contentNegotiationManager)
+            throws HttpMediaTypeNotAcceptableException {
+        request.getNativeResponse(HttpServletResponse.class).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        @SuppressWarnings("unchecked")
+        Collection<MediaType> producible = (Collection<MediaType>) request.getAttribute(
+                HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return of("", contentNegotiationManager.resolveMediaTypes(request), producible);
+    }
+
+    /**
+     * Answers 304 when the request's {@code If-None-Match} names the ETag, and only reads the body otherwise. Meant to
+     * run on the service executor together with the version read, so neither blocks the request thread.
+     */
+    static <T> ResponseEntity<T> ok(NativeWebRequest request, String eTag, Supplier<T> body) {
+        // Given no response, the servlet request only compares the validators.
+        if (new ServletWebRequest(request.getNativeRequest(HttpServletRequest.class)).checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(body.get());
+    }
+
+    /**
+     * @return the ETag of the representation WebFlux will write for the exchange
+     */
+    static String of(String version, ServerWebExchange exchange, RequestedContentTypeResolver contentTypeResolver) {
+        return of(version, contentTypeResolver.resolveMediaTypes(exchange),
+                exchange.getAttribute(org.springframework.web.reactive.HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE));
+    }
+
+    /**
+     * Picks the media type the way Spring picks it when writing the body: the most specific of the acceptable and
+     * producible pairs, by quality and then specificity, ties going to the order the handler lists its types in.
+     *
+     * @param acceptable the requested types, sorted by specificity and quality
+     * @param producible the types the handler mapping matched, or null when the handler declares none
+     */
+    static String of(String version, List<MediaType> acceptable, Collection<MediaType> producible) {
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType accepted : acceptable) {
+            for (MediaType candidate : producible == null ? Collections.<MediaType>emptyList() : producible) {
+                if (accepted.isCompatibleWith(candidate)) {
+                    MediaType withQuality = candidate.copyQualityValue(accepted);
+                    compatible.add(MediaType.SPECIFICITY_COMPARATOR.compare(accepted, withQuality) <= 0 ? accepted : withQuality);
+                }
+            }
+        }
+        // Handlers only produce concrete types, so the first one left is the type Spring writes.
+        MediaType.sortBySpecificityAndQuality(compatible);
+        return compatible.isEmpty() ? version : version + ";" + compatible.get(0).getSubtype();
+    }
+}
@@ -0,0 +1,14 @@
+package cx.catapult.animals.web;
+
+/**
+ * Binary formats the collection endpoints serve besides JSON. CBOR and Smile carry the same fields as the JSON body;
+ * Protobuf follows {@code proto/animals.proto}.
+ */
+public final class CollectionMediaTypes {
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    public static final String PROTOBUF_VALUE = "application/x-protobuf";
+
+    private CollectionMediaTypes() {
+    }
+}
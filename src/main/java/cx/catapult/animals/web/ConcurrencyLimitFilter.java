@@ -0,0 +1,155 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+/**
+ * Sheds {@code /api/} requests once more of them are in flight than the adaptive limit allows, so a slow database
+ * answers the excess with an immediate 503 instead of letting every request queue behind the connection pool.
+ * Reads ({@code GET} and {@code HEAD}) and writes have separate limits. The limits, in-flight counts and rejections
+ * are published as {@code animals.limiter.*} meters tagged with {@code kind=read|write}.
+ */
+@Component
+@ConditionalOnWebApplication(type = SERVLET)
+@ConditionalOnProperty(prefix = "animals.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String METRIC = "animals.limiter";
+    static final String PERMIT_ATTRIBUTE = ConcurrencyLimitFilter.class.getName() + ".permit";
+
+    private final AdaptiveLimiter reads;
+    private final AdaptiveLimiter writes;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public ConcurrencyLimitFilter(AnimalsProperties properties, MeterRegistry meterRegistry,
+                                  @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        AnimalsProperties.Limiter limiter = properties.getLimiter();
+        this.reads = new AdaptiveLimiter(limiter, limiter.getRead());
+        this.writes = new AdaptiveLimiter(limiter, limiter.getWrite());
+        this.readsRejected = register(meterRegistry, "read", reads);
+        this.writesRejected = register(meterRegistry, "write", writes);
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit == null) {
+            boolean read = isRead(request);
+            AdaptiveLimiter limiter = read ? reads : writes;
+            if (!limiter.tryAcquire()) {
+                (read ? readsRejected : writesRejected).increment();
+                exceptionResolver.resolveException(request, response, null,
+                        new ServiceOverloadedException("Too many requests in flight, please retry"));
+                return;
+            }
+            permit = new Permit(limiter, !request.getRequestURI().endsWith("/export"));
+            request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Controllers return futures, so the call usually completes after this thread has left the filter.
+                // The permit is returned on the async dispatch, or by the listener if there never is one.
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release(response.getStatus());
+            }
+        }
+    }
+
+    static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String kind, AdaptiveLimiter limiter) {
+        Gauge.builder(METRIC + ".limit", limiter, AdaptiveLimiter::getLimit)
+                .tag("kind", kind)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".in.flight", limiter, AdaptiveLimiter::getInFlight)
+                .tag("kind", kind)
+                .description("Requests currently holding a permit")
+                .register(meterRegistry);
+        return Counter.builder(METRIC + ".rejected")
+                .tag("kind", kind)
+                .description("Requests shed because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    static class Permit implements AsyncListener {
+
+        private final AdaptiveLimiter limiter;
+        private final boolean sampled;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(AdaptiveLimiter limiter, boolean sampled) {
+            this.limiter = limiter;
+            this.sampled = sampled;
+        }
+
+        void release(int status) {
+            if (released.compareAndSet(false, true)) {
+                long rtt = sampled ? System.nanoTime() - start : -1;
+                limiter.release(rtt, status == HttpStatus.SERVICE_UNAVAILABLE.value());
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(((HttpServletResponse) event.getSuppliedResponse()).getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
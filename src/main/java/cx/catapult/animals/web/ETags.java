@@ -0,0 +1,109 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.domain.Animal;
+import cx.catapult.animals.exception.InvalidRequestException;
+import cx.catapult.animals.exception.PreconditionFailedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Validators for single animals. The strong ETag combines the ID with the VERSION column, which every update bumps,
+ * so it serves both conditional GETs and {@code If-Match} on PUT. A gzipped body is a different byte stream, so it
+ * gets the same ETag with a {@code ;gzip} suffix. Last-Modified comes from the UPDATED_DATE column.
+ */
+final class ETags {
+
+    private static final String GZIP_SUFFIX = ";gzip";
+
+    private ETags() {
+    }
+
+    static String of(Animal animal) {
+        return animal.getNumericId() + "-" + animal.getVersion();
+    }
+
+    /**
+     * @return the quoted ETag of the gzipped body, given the quoted ETag of the plain one
+     */
+    static String gzipped(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Compares an {@code If-None-Match} header with the quoted ETag of a plain body, the weak way RFC 7232 asks for.
+     * The ETag of the gzipped body matches too, since both codings are encoded from the same version.
+     */
+    static boolean notModified(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String gzipped = gzipped(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag) || tag.equals(gzipped)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long lastModified(Animal animal) {
+        return updated(animal).toEpochMilli();
+    }
+
+    /**
+     * Reads the version an update of the animal must find from the update's {@code If-Match} header.
+     *
+     * @return the version, or null when the header is missing or {@code *}, so the update is unconditional
+     * @throws InvalidRequestException when the header lists several ETags
+     * @throws PreconditionFailedException when the ETag is weak or not one of this animal's, which can never match.
+     * The ETag of the gzipped body counts as the animal's.
+     */
+    static Long expectedVersion(Animal animal, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.indexOf(',') >= 0) {
+            throw new InvalidRequestException("If-Match must name a single ETag");
+        }
+        String prefix = "\"" + animal.getNumericId() + "-";
+        if (!eTag.startsWith(prefix) || !eTag.endsWith("\"")) {
+            throw new PreconditionFailedException();
+        }
+        String version = eTag.substring(prefix.length(), eTag.length() - 1);
+        if (version.endsWith(GZIP_SUFFIX)) {
+            version = version.substring(0, version.length() - GZIP_SUFFIX.length());
+        }
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException nfe) {
+            throw new PreconditionFailedException();
+        }
+    }
+
+    /**
+     * Answers with the animal and its validators, varying by {@code Accept} like the collection responses.
+     */
+    static <T extends Animal> ResponseEntity<T> ok(T animal) {
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).eTag(of(animal)).lastModified(lastModified(animal)).body(animal);
+    }
+
+    /**
+     * Answers an accepted update, with the animal's new ETag when the update was conditional.
+     */
+    static ResponseEntity<Void> accepted(Animal animal) {
+        ResponseEntity.BodyBuilder accepted = ResponseEntity.accepted();
+        return animal.getVersion() == null ? accepted.build() : accepted.eTag(of(animal)).build();
+    }
+
+    private static Instant updated(Animal animal) {
+        return animal.getUpdatedDate() == null ? Instant.EPOCH : animal.getUpdatedDate().atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,127 @@
+package cx.catapult.animals.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.domain.Animal;
+import cx.catapult.animals.domain.EncodedAnimal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+/**
+ * Encodes single animal responses to bytes up front, so the services can keep them in their response cache, and
+ * turns them back into responses. The bytes are copied to the response as they are, gzipped ones included, so a
+ * cache hit costs no serialization, compression or header formatting.
+ */
+@Component
+@ConditionalOnWebApplication(type = SERVLET)
+public class EncodedResponses {
+
+    private static final String GZIP = "gzip";
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final ThreadLocal<Deflater> DEFLATERS =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    private final ObjectMapper objectMapper;
+    private final boolean gzip;
+
+    public EncodedResponses(ObjectMapper objectMapper, AnimalsProperties properties) {
+        this.objectMapper = objectMapper;
+        this.gzip = properties.getResponseCache().isEnabled() && properties.getResponseCache().isGzip();
+    }
+
+    EncodedAnimal encode(Animal animal) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setETag("\"" + ETags.of(animal) + "\"");
+        headers.setLastModified(ETags.lastModified(animal));
+        headers.setVary(gzip ? Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                : Collections.singletonList(HttpHeaders.ACCEPT));
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(animal);
+            byte[] gzipped = gzip ? gzip(body) : null;
+            // Bodies of a few hundred bytes or less tend to grow once the gzip header is added.
+            return new EncodedAnimal(Collections.unmodifiableMap(headers.toSingleValueMap()), body,
+                    gzipped != null && gzipped.length < body.length ? gzipped : null);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    /**
+     * Only copies the headers rendered by {@link #encode(Animal)}, since formatting dates and ETags again would cost
+     * more than the cache lookup; a gzipped body just gets the suffix on its ETag. Answers 304 when
+     * {@code If-None-Match} names the ETag of either coding.
+     */
+    ResponseEntity<byte[]> ok(EncodedAnimal encoded, String acceptEncoding, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAll(encoded.getHeaders());
+        String eTag = headers.getETag();
+        boolean gzipped = encoded.getGzippedBody() != null && acceptsGzip(acceptEncoding);
+        if (gzipped) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.setETag(ETags.gzipped(eTag));
+        }
+        if (ETags.notModified(ifNoneMatch, eTag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(gzipped ? encoded.getGzippedBody() : encoded.getBody(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Writes the gzip format around a raw deflate stream, the way {@link java.util.zip.GZIPOutputStream} does, but
+     * with a deflater kept per thread. Setting up a new deflater costs several times more than compressing a body.
+     */
+    private static byte[] gzip(byte[] body) {
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(body);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length + GZIP_HEADER.length + 8);
+        out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+        byte[] buffer = new byte[body.length + 64];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        writeInt(out, (int) crc.getValue());
+        writeInt(out, body.length);
+        return out.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            out.write(value >>> shift);
+        }
+    }
+
+    /**
+     * @return whether the Accept-Encoding header lists gzip without turning it off with {@code q=0}
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package cx.catapult.animals.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import cx.catapult.animals.domain.Animal;
+import cx.catapult.animals.exception.InvalidRequestException;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reads JSON Merge Patch (RFC 7396) documents for single animals. Only the name and the description can be patched,
+ * and since both are required a patch can set them but not remove them with null.
+ */
+final class MergePatches {
+
+    static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private MergePatches() {
+    }
+
+    /**
+     * Copies the members of the patch onto {@code changes}, whose name and description are expected to be null.
+     *
+     * @throws InvalidRequestException when the patch is not an object, names another member or sets a blank value
+     */
+    static <T extends Animal> T read(JsonNode patch, T changes) {
+        if (!patch.isObject()) {
+            throw new InvalidRequestException("Patch must be a JSON object");
+        }
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            if (member.getKey().equals("name")) {
+                changes.setName(text(member.getValue(), "Name cannot be null or empty"));
+            } else if (member.getKey().equals("description")) {
+                changes.setDescription(text(member.getValue(), "Description cannot be null or empty"));
+            } else {
+                throw new InvalidRequestException("Only name and description can be patched");
+            }
+        }
+        return changes;
+    }
+
+    private static String text(JsonNode value, String message) {
+        if (!value.isTextual() || value.asText().trim().isEmpty()) {
+            throw new InvalidRequestException(message);
+        }
+        return value.asText();
+    }
+}
@@ -0,0 +1,127 @@
+package cx.catapult.animals.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import cx.catapult.animals.domain.AnimalLookup;
+import cx.catapult.animals.domain.AnimalPage;
+import cx.catapult.animals.domain.Cat;
+import cx.catapult.animals.exception.InvalidRequestException;
+import cx.catapult.animals.service.BaseService;
+import cx.catapult.animals.service.ReactiveAnimalService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * WebFlux version of {@link CatsController} served by the {@code reactive} profile.
+ */
+@RestController
+@RequestMapping(path = "/api/1/cats", produces = MediaType.APPLICATION_JSON_VALUE)
+@Validated
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveCatsController {
+
+    @Autowired
+    private ReactiveAnimalService<Cat> service;
+    @Autowired
+    private RequestedContentTypeResolver contentTypeResolver;
+
+    /**
+     * Streams rows to the client as they are read when asked for {@code application/stream+json}.
+     */
+    @GetMapping(value = "", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    public Mono<ResponseEntity<Flux<Cat>>> all(ServerWebExchange exchange) {
+        return service.getVersion().map(version -> ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT)
+                .eTag(CollectionETags.of(version, exchange, contentTypeResolver)).body(service.all()));
+    }
+
+    @GetMapping(value = "", params = {"limit", "!ids"})
+    public Mono<ResponseEntity<AnimalPage<Cat>>> page(@RequestParam @Min(value = 1, message = "Limit must be between 1 and " + AnimalPage.MAX_LIMIT)
+                                                     @Max(value = AnimalPage.MAX_LIMIT, message = "Limit must be between 1 and " + AnimalPage.MAX_LIMIT) int limit,
+                                                     @RequestParam(required = false) String after,
+                                                     ServerWebExchange exchange) {
+        return service.getVersion().flatMap(version -> service.page(after, limit)
+                .map(page -> ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT)
+                        .eTag(CollectionETags.of(version, exchange, contentTypeResolver)).body(page)));
+    }
+
+    @GetMapping(value = "", params = {"ids", "!limit"})
+    public Mono<List<AnimalLookup<Cat>>> getAll(@RequestParam List<String> ids) {
+        return service.getAll(ids);
+    }
+
+    /**
+     * Rejects {@code ?ids} with {@code ?limit}, which would otherwise match both the multi-get and the page.
+     */
+    @GetMapping(value = "", params = {"ids", "limit"})
+    public Mono<Void> getAllWithLimit() {
+        return Mono.error(new InvalidRequestException("Ids cannot be combined with limit"));
+    }
+
+    @GetMapping(value = "/search")
+    public Flux<Cat> search(@RequestParam @NotBlank(message = "Query cannot be blank") String q,
+                          @RequestParam(defaultValue = "10") @Min(value = 1, message = "Limit must be between 1 and " + BaseService.MAX_SEARCH_LIMIT)
+                          @Max(value = BaseService.MAX_SEARCH_LIMIT, message = "Limit must be between 1 and " + BaseService.MAX_SEARCH_LIMIT) int limit) {
+        return service.search(q, limit);
+    }
+
+    @GetMapping(value = "/export", produces = NdJsonWriter.MEDIA_TYPE)
+    public Flux<Cat> export() {
+        return service.all();
+    }
+
+    @GetMapping(value = "/{id}")
+    public Mono<ResponseEntity<Cat>> get(@PathVariable String id) {
+        return service.get(id).map(ETags::ok);
+    }
+
+    @PostMapping(value = "", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Cat> create(@RequestBody Cat cat) {
+        return service.create(cat);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<List<String>> createAll(@RequestBody @Size(min = 1, max = BaseService.MAX_BATCH_SIZE, message = "Batch must contain between 1 and " + BaseService.MAX_BATCH_SIZE + " records")
+                                        List<@NotNull(message = "Record cannot be null") @Valid Cat> cats) {
+        return service.createAll(cats);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MergePatches.MEDIA_TYPE)
+    public Mono<ResponseEntity<Cat>> patch(@PathVariable String id, @RequestBody JsonNode patch,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.defer(() -> {
+            Cat changes = MergePatches.read(patch, Cat.builder().id(id).build());
+            changes.setVersion(ETags.expectedVersion(changes, ifMatch));
+            return service.patch(changes);
+        }).map(ETags::ok);
+    }
+
+    @PutMapping(value = "", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Void>> update(@RequestBody @Valid Cat cat,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.defer(() -> {
+            cat.setVersion(ETags.expectedVersion(cat, ifMatch));
+            return service.update(cat);
+        }).then(Mono.fromCallable(() -> ETags.accepted(cat)));
+    }
+}
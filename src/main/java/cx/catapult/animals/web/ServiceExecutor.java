@@ -0,0 +1,89 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+/**
+ * Runs the service calls behind the controllers. In async mode they run on a fixed pool sized to the connection
+ * pool with a bounded queue, so a slow database ties up these workers rather than the servlet container threads,
+ * and requests beyond the queue are rejected straight away. Otherwise they run inline on the calling thread.
+ * Queue depth and activity are published as {@code executor.*} meters and rejections as {@code executor.rejected},
+ * all tagged {@code name=animals.service}.
+ */
+@Component
+@ConditionalOnWebApplication(type = SERVLET)
+public class ServiceExecutor implements DisposableBean {
+
+    static final String NAME = "animals.service";
+
+    private final ExecutorService executor;
+    private TaskDecorator taskDecorator;
+
+    public ServiceExecutor(AnimalsProperties properties, MeterRegistry meterRegistry) {
+        AnimalsProperties.Async async = properties.getAsync();
+        this.executor = async.isEnabled() ? createExecutor(async, meterRegistry) : null;
+    }
+
+    @Autowired(required = false)
+    void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        if (executor == null) {
+            return CompletableFuture.completedFuture(supplier.get());
+        }
+        return CompletableFuture.supplyAsync(supplier, this::execute);
+    }
+
+    public CompletableFuture<Void> run(Runnable runnable) {
+        return supply(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    private void execute(Runnable task) {
+        executor.execute(taskDecorator == null ? task : taskDecorator.decorate(task));
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService createExecutor(AnimalsProperties.Async async, MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("executor.rejected")
+                .tag("name", NAME)
+                .description("Service calls rejected because the executor queue was full")
+                .register(meterRegistry);
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(async.getPoolSize(), async.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(async.getQueueCapacity()),
+                new CustomizableThreadFactory("animals-service-"),
+                (runnable, executor) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Service executor queue is full");
+                });
+        return ExecutorServiceMetrics.monitor(meterRegistry, threadPool, NAME);
+    }
+}
@@ -0,0 +1,26 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.domain.AnimalStats;
+import cx.catapult.animals.service.AnimalStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Animal counts per type and group. Served from in-memory counters on both the servlet and the reactive stack, so
+ * there is no database work to hand to the executor.
+ */
+@RestController
+@RequestMapping(path = "/api/1/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+public class StatsController {
+
+    @Autowired
+    private AnimalStatistics statistics;
+
+    @GetMapping("")
+    public AnimalStats get() {
+        return statistics.get();
+    }
+}
@@ -0,0 +1 @@
+CREATE INDEX IDX_ANIMAL_TYPE_ID ON animal_tbl (ANIMAL_TYPE, ID);
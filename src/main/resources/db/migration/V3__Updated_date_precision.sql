@@ -0,0 +1 @@
+ALTER TABLE animal_tbl MODIFY UPDATED_DATE TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
@@ -0,0 +1,2 @@
+CREATE INDEX IDX_ANIMAL_TYPE_GROUP_ID ON animal_tbl (ANIMAL_TYPE, GROUP_NAME, ID);
+CREATE INDEX IDX_ANIMAL_TYPE_NAME ON animal_tbl (ANIMAL_TYPE, NAME);
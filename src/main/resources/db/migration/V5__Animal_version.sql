@@ -0,0 +1 @@
+ALTER TABLE animal_tbl ADD COLUMN VERSION BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+CREATE INDEX IDX_ANIMAL_TYPE_ID_VERSION ON animal_tbl (ANIMAL_TYPE, ID, VERSION);
+DROP INDEX IDX_ANIMAL_TYPE_ID ON animal_tbl;
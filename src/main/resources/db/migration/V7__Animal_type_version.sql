@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS animal_type_version_tbl
+(
+    ANIMAL_TYPE VARCHAR(50) NOT NULL PRIMARY KEY,
+    VERSION     BIGINT      NOT NULL
+);
+CREATE INDEX IDX_ANIMAL_TYPE_ID ON animal_tbl (ANIMAL_TYPE, ID);
+DROP INDEX IDX_ANIMAL_TYPE_ID_VERSION ON animal_tbl;
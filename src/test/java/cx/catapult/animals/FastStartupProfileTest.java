@@ -0,0 +1,60 @@
+package cx.catapult.animals;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static cx.catapult.animals.TestUtils.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("fast-startup")
+@AutoConfigureMockMvc
+class FastStartupProfileTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+    @Autowired
+    private MockMvc mvc;
+
+    /**
+     * The profile leaves migrating to the migrate command, run before the instances start as in a deployment.
+     */
+    @BeforeAll
+    static void migrate() {
+        AnimalsApiApplication.main(new String[]{"migrate"});
+    }
+
+    @Test
+    void onlySpringdocBeansShouldBeLazy() throws Exception {
+        assertThat(context.getBeanFactory().getBeanDefinition("openApiResource").isLazyInit()).isTrue();
+        assertThat(context.getBeanFactory().getBeanDefinition("horseService").isLazyInit()).isFalse();
+        assertThat(context.getBeanFactory().containsSingleton("openApiResource")).isFalse();
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=1")).andExpect(status().isOk());
+        perform(mvc, MockMvcRequestBuilders.get("/api-docs")).andExpect(status().isOk());
+        assertThat(context.getBeanFactory().containsSingleton("openApiResource")).isTrue();
+    }
+
+    @Test
+    void startupEndpointShouldReportTheTimeline() throws Exception {
+        String body = perform(mvc, MockMvcRequestBuilders.get("/actuator/startup"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> phases = JsonPath.read(body, "$.phases[*].name");
+        assertThat(phases).startsWith("starting").contains("contextRefreshed", "ready");
+        List<String> beans = JsonPath.read(body, "$.slowestBeans[*].name");
+        assertThat(beans).hasSize(20);
+    }
+}
@@ -0,0 +1,38 @@
+package cx.catapult.animals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static cx.catapult.animals.TestUtils.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void prometheusShouldExposeServiceRepositoryPoolAndLimiterMeters() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats?limit=1")).andExpect(status().isOk());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/0")).andExpect(status().isNotFound());
+
+        String body = mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).contains("animals_service_seconds_bucket{method=\"page\",outcome=\"success\",type=\"cat\"");
+        assertThat(body).contains("animals_service_seconds{method=\"get\",outcome=\"not_found\",type=\"cat\",quantile=\"0.99\"");
+        assertThat(body).contains("animals_repository_seconds_bucket{method=\"findSummariesByAnimalTypeAndIdGreaterThan\"");
+        assertThat(body).contains("animals_repository_results_rows_bucket{method=\"findSummariesByAnimalTypeAndIdGreaterThan\"");
+        assertThat(body).contains("hikaricp_connections_acquire_seconds_bucket");
+        assertThat(body).contains("animals_limiter_limit{kind=\"read\",}");
+        assertThat(body).contains("animals_limiter_rejected_total{kind=\"write\",}");
+    }
+}
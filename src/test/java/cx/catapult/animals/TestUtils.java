@@ -2,6 +2,12 @@ package cx.catapult.animals;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 
 public class TestUtils {
 
@@ -9,4 +15,17 @@ public class TestUtils {
         ObjectMapper mapper = new ObjectMapper();
         return mapper.readValue(data, clazz);
     }
+
+    /**
+     * Performs the request and, when the handler returned a future, dispatches its result like the container would.
+     */
+    public static ResultActions perform(MockMvc mvc, RequestBuilder request) throws Exception {
+        ResultActions actions = mvc.perform(request);
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result.getAsyncResult();
+            return mvc.perform(asyncDispatch(result));
+        }
+        return actions;
+    }
 }
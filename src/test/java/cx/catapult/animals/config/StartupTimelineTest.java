@@ -0,0 +1,62 @@
+package cx.catapult.animals.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class StartupTimelineTest {
+
+    private final SpringApplication application = new SpringApplication();
+    private final String[] args = new String[0];
+    private final GenericApplicationContext context = new GenericApplicationContext();
+    private final List<Integer> halts = new ArrayList<>();
+    private final StartupTimeline timeline = new StartupTimeline(halts::add);
+
+    @Test
+    void shouldRecordPhasesAndBeanCreationTimes() {
+        timeline.onApplicationEvent(new ApplicationStartingEvent(application, args));
+        timeline.onApplicationEvent(new ApplicationEnvironmentPreparedEvent(application, args, new MockEnvironment()));
+        timeline.onApplicationEvent(new ApplicationPreparedEvent(application, args, context));
+        context.registerBean("names", ArrayList.class);
+        // The timeline is a bean of the context by now, so it hears the refresh itself.
+        context.refresh();
+        timeline.onApplicationEvent(mock(WebServerInitializedEvent.class));
+        timeline.onApplicationEvent(new ApplicationStartedEvent(application, args, context));
+        timeline.onApplicationEvent(new ApplicationReadyEvent(application, args, context));
+
+        StartupTimeline.Report report = timeline.report();
+        assertThat(report.getPhases()).extracting(StartupTimeline.Phase::getName).containsExactly("starting",
+                "environmentPrepared", "contextPrepared", "contextRefreshed", "webServerStarted", "started", "ready");
+        assertThat(report.getPhases().stream().map(StartupTimeline.Phase::getMillis).collect(Collectors.toList()))
+                .isSorted();
+        assertThat(report.getSlowestBeans()).extracting(StartupTimeline.BeanTiming::getName).contains("names");
+        assertThat(context.getBean(StartupTimeline.class)).isSameAs(timeline);
+        assertThat(halts).isEmpty();
+    }
+
+    @Test
+    void trainingRunShouldStopOnceTheContextIsRefreshed() {
+        MockEnvironment environment = new MockEnvironment().withProperty(StartupTimeline.TRAINING_RUN, "true");
+        timeline.onApplicationEvent(new ApplicationEnvironmentPreparedEvent(application, args, environment));
+        timeline.onApplicationEvent(new ApplicationPreparedEvent(application, args, context));
+
+        timeline.onApplicationEvent(new ContextRefreshedEvent(context));
+
+        assertThat(halts).containsExactly(0);
+    }
+}
@@ -1,13 +1,21 @@
 package cx.catapult.animals.exception;
 
+import cx.catapult.animals.domain.ApiError;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
+import java.util.concurrent.RejectedExecutionException;
+
+import static cx.catapult.animals.TestUtils.perform;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -21,19 +29,50 @@ class ApiExceptionHandlerTest {
     @Test
     void handleValidationExceptions() throws Exception {
         String json = "{ \"description\": \"Stallion\" }";
-        mvc.perform(MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isBadRequest());
     }
 
     @Test
     void handleConstraintViolationException() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/api/1/horses/ ").contentType(MediaType.APPLICATION_JSON_VALUE))
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/ ").contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isBadRequest());
     }
 
     @Test
     void handleNotFoundException() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/api/1/horses/1").contentType(MediaType.APPLICATION_JSON_VALUE))
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/1").contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleInvalidRequestException() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=10&after=!").contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void handleServiceOverloadedException() {
+        ResponseEntity<ApiError> response = new ApiExceptionHandler()
+                .handleServiceOverloadedException(new ServiceOverloadedException("busy"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("busy", response.getBody().getMessage());
+    }
+
+    @Test
+    void handleRejectedExecutionException() {
+        ResponseEntity<ApiError> response = new ApiExceptionHandler()
+                .handleRejectedExecutionException(new RejectedExecutionException("full"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void handleAsyncRequestTimeoutException() {
+        ResponseEntity<ApiError> response = new ApiExceptionHandler()
+                .handleAsyncRequestTimeoutException(new AsyncRequestTimeoutException());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("Request timed out", response.getBody().getMessage());
+    }
+}
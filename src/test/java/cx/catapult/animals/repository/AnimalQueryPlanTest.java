@@ -0,0 +1,126 @@
+package cx.catapult.animals.repository;
+
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every query of the store against a table holding several animal types and checks with EXPLAIN that none of
+ * them reads the whole table.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "cx.catapult.animals.repository.AnimalQueryPlanTest$Statements")
+class AnimalQueryPlanTest {
+
+    private static final String[] TYPES = {"PLAN0", "PLAN1", "PLAN2", "PLAN3", "PLAN4"};
+    private static final String[] GROUPS = {"BIRD", "FISH", "MAMMALS", "REPTILES"};
+    private static final Pattern PARAMETER = Pattern.compile("(?:\\w+\\.)?(\\w+)\\s*(=|<>|>=|<=|>|<)\\s*\\?");
+
+    @Autowired
+    private AnimalRepository animalRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(new Object[]{"Plan " + (i * 7919 % 2000), "Plan animal", GROUPS[i % GROUPS.length], TYPES[i % TYPES.length]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO animal_tbl (NAME, DESCRIPTION, GROUP_NAME, ANIMAL_TYPE) VALUES (?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE TABLE animal_tbl");
+        Statements.SQL.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM animal_tbl WHERE ANIMAL_TYPE LIKE 'PLAN%'");
+    }
+
+    @Test
+    void noQueryShouldScanTheWholeTable() {
+        AnimalSummary after = new AnimalSummary(1L, "Plan 1", null, null);
+        animalRepository.findSummariesByAnimalType("PLAN1");
+        animalRepository.findSummariesByAnimalTypeAndIdGreaterThan("PLAN1", 1L, PageRequest.of(0, 10));
+        animalRepository.findSummaryById("PLAN1", 1L);
+        animalRepository.findSummariesByAnimalTypeAndIdIn("PLAN1", Arrays.asList(1L, 2L));
+        animalRepository.countByAnimalTypeAndGroup();
+        animalRepository.findCollectionVersion("PLAN1");
+        for (AnimalOrder order : AnimalOrder.values()) {
+            animalRepository.findSummaries("PLAN1", null, order, null, 10);
+            animalRepository.findSummaries("PLAN1", null, order, after, 10);
+            animalRepository.findSummaries("PLAN1", "BIRD", order, null, 10);
+            animalRepository.findSummaries("PLAN1", "BIRD", order, after, 10);
+        }
+        animalRepository.updateNameAndDescription("PLAN1", 0L, "Plan", "Plan animal", LocalDateTime.now());
+        animalRepository.updateNameAndDescriptionIfVersion("PLAN1", 0L, 0, "Plan", "Plan animal", LocalDateTime.now());
+        animalRepository.patchIfVersion("PLAN1", 0L, 0, null, "Plan animal", LocalDateTime.now());
+        animalRepository.deleteAnimalById("PLAN1", 0L);
+        transactionTemplate.execute(status -> {
+            try (Stream<AnimalSummary> animals = animalRepository.streamByAnimalType("PLAN1")) {
+                return animals.count();
+            }
+        });
+
+        assertThat(Statements.SQL).hasSizeGreaterThanOrEqualTo(18);
+        for (String sql : Statements.SQL) {
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + withValues(sql));
+            assertThat(plan).as(sql).noneMatch(step -> "ALL".equals(step.get("type")));
+        }
+    }
+
+    /**
+     * Puts a value matching the column in place of every parameter, since EXPLAIN cannot take any.
+     */
+    private static String withValues(String sql) {
+        Matcher matcher = PARAMETER.matcher(sql.replaceAll("(?i)limit \\?", "limit 10")
+                .replaceAll("(?i)in \\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)", "in (1, 2)"));
+        StringBuffer explained = new StringBuffer();
+        while (matcher.find()) {
+            String column = matcher.group(1).toUpperCase();
+            String value = column.equals("ID") ? "1"
+                    : column.equals("ANIMAL_TYPE") ? "'PLAN1'"
+                    : column.equals("GROUP_NAME") ? "'BIRD'"
+                    : column.equals("VERSION") ? "0"
+                    : column.endsWith("_DATE") ? "now()"
+                    : "'Plan 1'";
+            matcher.appendReplacement(explained, Matcher.quoteReplacement(matcher.group().replace("?", value)));
+        }
+        return matcher.appendTail(explained).toString();
+    }
+
+    public static class Statements implements StatementInspector {
+        static final Set<String> SQL = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public String inspect(String sql) {
+            String lower = sql.trim().toLowerCase();
+            if (lower.startsWith("select") || lower.startsWith("update") || lower.startsWith("delete")) {
+                SQL.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package cx.catapult.animals.repository;
+
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RepositoryMetricsAspectTest {
+
+    @Mock
+    AnimalRepository animalRepository;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    AnimalRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(animalRepository);
+        factory.addInterface(AnimalRepository.class);
+        factory.addAspect(new RepositoryMetricsAspect(registry));
+        repository = factory.getProxy();
+    }
+
+    @Test
+    void shouldTimeQueriesAndRecordResultSizes() {
+        AnimalSummary summary = new AnimalSummary(1L, "Tom", "Cat", "MAMMALS");
+        when(animalRepository.findSummariesByAnimalType("CAT")).thenReturn(Arrays.asList(summary, summary));
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(summary));
+
+        repository.findSummariesByAnimalType("CAT");
+        repository.findSummaryById("HORSE", 1L);
+
+        assertThat(registry.get(RepositoryMetricsAspect.METRIC).tag("method", "findSummariesByAnimalType")
+                .tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.get(RepositoryMetricsAspect.RESULTS_METRIC).tag("method", "findSummariesByAnimalType")
+                .summary().totalAmount()).isEqualTo(2);
+        assertThat(registry.get(RepositoryMetricsAspect.METRIC).tag("method", "findSummaryById").timer().count()).isEqualTo(1);
+        assertThat(registry.find(RepositoryMetricsAspect.RESULTS_METRIC).tag("method", "findSummaryById").summary()).isNull();
+    }
+
+    @Test
+    void shouldTagErrors() {
+        when(animalRepository.deleteAnimalById("HORSE", 1L)).thenThrow(new IllegalStateException("down"));
+
+        assertThrows(IllegalStateException.class, () -> repository.deleteAnimalById("HORSE", 1L));
+
+        assertThat(registry.get(RepositoryMetricsAspect.METRIC).tag("method", "deleteAnimalById")
+                .tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,243 @@
+package cx.catapult.animals.repository.memory;
+
+import cx.catapult.animals.repository.AnimalOrder;
+import cx.catapult.animals.repository.entity.AnimalCount;
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryAnimalStoreTest {
+
+    private final InMemoryAnimalStore store = new InMemoryAnimalStore();
+
+    @Test
+    void save_shouldAssignIdsAndKeepTypesApart() {
+        AnimalEntity cat = store.save(entity("Tom", "CAT"));
+        AnimalEntity horse = store.save(entity("Spirit", "HORSE"));
+
+        assertThat(cat.getId()).isEqualTo(1L);
+        assertThat(horse.getId()).isEqualTo(2L);
+        assertThat(names(store.findSummariesByAnimalType("CAT"))).containsExactly("Tom");
+        assertThat(names(store.findSummariesByAnimalType("HORSE"))).containsExactly("Spirit");
+        assertThat(store.findSummariesByAnimalType("DOG")).isEmpty();
+    }
+
+    @Test
+    void findSummaryById_shouldIncludeTheUpdatedDateOnlyForSingleRows() {
+        Long id = store.save(entity("Tom", "CAT")).getId();
+
+        AnimalSummary summary = store.findSummaryById("CAT", id).get();
+
+        assertThat(summary.getName()).isEqualTo("Tom");
+        assertThat(summary.getGroup()).isEqualTo("MAMMALS");
+        assertThat(summary.getUpdatedDate()).isNotNull();
+        assertThat(store.findSummariesByAnimalType("CAT").get(0).getUpdatedDate()).isNull();
+        assertThat(store.findSummaryById("CAT", id + 1)).isEmpty();
+        assertThat(store.findSummaryById("CAT", 0L)).isEmpty();
+    }
+
+    @Test
+    void findSummariesByAnimalTypeAndIdIn_shouldOnlyFindAnimalsOfTheType() {
+        Long tom = store.save(entity("Tom", "CAT")).getId();
+        Long felix = store.save(entity("Felix", "CAT")).getId();
+        Long horse = store.save(entity("Horsey", "HORSE")).getId();
+
+        List<AnimalSummary> summaries = store.findSummariesByAnimalTypeAndIdIn("CAT", Arrays.asList(felix, horse, tom, felix + 10, 0L));
+
+        assertThat(summaries).extracting(AnimalSummary::getName).containsExactlyInAnyOrder("Tom", "Felix");
+        assertThat(summaries).allMatch(summary -> summary.getUpdatedDate() != null && summary.getVersion() == 0);
+    }
+
+    @Test
+    void updateAndDelete_shouldReportTheRowsTheyTouched() {
+        Long id = store.save(entity("Tom", "CAT")).getId();
+        LocalDateTime updatedDate = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+        assertThat(store.updateNameAndDescription("CAT", id, "Garfield", "Lazy", updatedDate)).isEqualTo(1);
+        AnimalSummary summary = store.findSummaryById("CAT", id).get();
+        assertThat(summary.getName()).isEqualTo("Garfield");
+        assertThat(summary.getDescription()).isEqualTo("Lazy");
+        assertThat(summary.getUpdatedDate()).isEqualTo(updatedDate);
+
+        assertThat(store.deleteAnimalById("CAT", id)).isEqualTo(1);
+        assertThat(store.deleteAnimalById("CAT", id)).isZero();
+        assertThat(store.updateNameAndDescription("CAT", id, "Garfield", "Lazy", updatedDate)).isZero();
+        assertThat(store.deleteAnimalById("CAT", -1L)).isZero();
+        assertThat(store.updateNameAndDescription("CAT", 0L, "Garfield", "Lazy", updatedDate)).isZero();
+        assertThat(store.findSummariesByAnimalType("CAT")).isEmpty();
+    }
+
+    @Test
+    void findCollectionVersion_shouldChangeWithEveryWriteToTheType() {
+        LocalDateTime updatedDate = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Long> versions = new ArrayList<>();
+        versions.add(store.findCollectionVersion("CAT"));
+        Long tom = store.save(entity("Tom", "CAT")).getId();
+        versions.add(store.findCollectionVersion("CAT"));
+        store.insertAll(Arrays.asList(entity("Felix", "CAT"), entity("Storm", "HORSE")));
+        versions.add(store.findCollectionVersion("CAT"));
+        store.updateNameAndDescription("CAT", tom, "Garfield", "Lazy", updatedDate);
+        versions.add(store.findCollectionVersion("CAT"));
+        store.patchIfVersion("CAT", tom, 1, null, "Lazier", updatedDate);
+        versions.add(store.findCollectionVersion("CAT"));
+        store.deleteAnimalById("CAT", tom);
+        versions.add(store.findCollectionVersion("CAT"));
+        store.deleteAnimalById("CAT", tom);
+        store.updateNameAndDescription("HORSE", tom, "Garfield", "Lazy", updatedDate);
+        store.save(entity("Spirit", "HORSE"));
+
+        assertThat(versions).containsExactly(0L, 1L, 2L, 3L, 4L, 5L);
+        assertThat(store.findCollectionVersion("CAT")).isEqualTo(5L);
+        assertThat(store.findCollectionVersion("HORSE")).isEqualTo(2L);
+        assertThat(store.findCollectionVersion("DOG")).isZero();
+    }
+
+    @Test
+    void byIdMethods_shouldNotMatchAnimalsOfAnotherType() {
+        Long id = store.save(entity("Tom", "CAT")).getId();
+        LocalDateTime updatedDate = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+        assertThat(store.findSummaryById("HORSE", id)).isEmpty();
+        assertThat(store.updateNameAndDescription("HORSE", id, "Storm", "Grey", updatedDate)).isZero();
+        assertThat(store.updateNameAndDescriptionIfVersion("HORSE", id, 0, "Storm", "Grey", updatedDate)).isZero();
+        assertThat(store.patchIfVersion("HORSE", id, 0, "Storm", null, updatedDate)).isZero();
+        assertThat(store.deleteAnimalById("HORSE", id)).isZero();
+
+        AnimalSummary summary = store.findSummaryById("CAT", id).get();
+        assertThat(summary.getName()).isEqualTo("Tom");
+        assertThat(summary.getVersion()).isZero();
+    }
+
+    @Test
+    void updateIfVersion_shouldOnlyMatchTheCurrentVersion() {
+        Long id = store.save(entity("Tom", "CAT")).getId();
+        LocalDateTime updatedDate = LocalDateTime.of(2020, 1, 1, 0, 0);
+        assertThat(store.findSummaryById("CAT", id).get().getVersion()).isZero();
+
+        assertThat(store.updateNameAndDescription("CAT", id, "Garfield", "Lazy", updatedDate)).isEqualTo(1);
+        assertThat(store.updateNameAndDescriptionIfVersion("CAT", id, 0, "Felix", "Stale", updatedDate)).isZero();
+        assertThat(store.updateNameAndDescriptionIfVersion("CAT", id, 1, "Felix", "Current", updatedDate)).isEqualTo(1);
+        AnimalSummary summary = store.findSummaryById("CAT", id).get();
+        assertThat(summary.getDescription()).isEqualTo("Current");
+        assertThat(summary.getVersion()).isEqualTo(2);
+
+        assertThat(store.patchIfVersion("CAT", id, 2, null, "Patched", updatedDate)).isEqualTo(1);
+        summary = store.findSummaryById("CAT", id).get();
+        assertThat(summary.getName()).isEqualTo("Felix");
+        assertThat(summary.getDescription()).isEqualTo("Patched");
+        assertThat(store.patchIfVersion("CAT", id, 3, "Tom", null, updatedDate)).isEqualTo(1);
+        assertThat(store.findSummaryById("CAT", id).get().getName()).isEqualTo("Tom");
+
+        assertThat(store.deleteAnimalById("CAT", id)).isEqualTo(1);
+        assertThat(store.updateNameAndDescriptionIfVersion("CAT", id, 4, "Felix", "Gone", updatedDate)).isZero();
+    }
+
+    @Test
+    void updateAll_shouldReportTheRowsEachUpdateTouched() {
+        Long id = store.save(entity("Tom", "CAT")).getId();
+        LocalDateTime updatedDate = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+        int[] counts = store.updateAll(Arrays.asList(
+                new AnimalEntity(id, "Garfield", "Lazy", "CAT", null, null, updatedDate, null),
+                new AnimalEntity(id + 1, "Felix", "Missing", "CAT", null, null, updatedDate, null)));
+
+        assertThat(counts).containsExactly(1, 0);
+        assertThat(store.findSummaryById("CAT", id).get().getName()).isEqualTo("Garfield");
+    }
+
+    @Test
+    void findSummariesByAnimalTypeAndIdGreaterThan_shouldPageInIdOrder() {
+        List<Long> ids = store.insertAll(Arrays.asList(entity("a", "CAT"), entity("b", "CAT"), entity("c", "CAT"),
+                entity("d", "CAT")));
+        store.deleteAnimalById("CAT", ids.get(1));
+
+        assertThat(names(store.findSummariesByAnimalTypeAndIdGreaterThan("CAT", 0L, PageRequest.of(0, 2))))
+                .containsExactly("a", "c");
+        assertThat(names(store.findSummariesByAnimalTypeAndIdGreaterThan("CAT", ids.get(0), PageRequest.of(0, 2))))
+                .containsExactly("c", "d");
+        assertThat(names(store.findSummariesByAnimalTypeAndIdGreaterThan("CAT", ids.get(3), PageRequest.of(0, 2))))
+                .isEmpty();
+        assertThat(names(store.findSummariesByAnimalTypeAndIdGreaterThan("CAT", 0L, PageRequest.of(1, 2))))
+                .containsExactly("d");
+        assertThat(names(store.findSummariesByAnimalTypeAndIdGreaterThan("CAT", 0L, PageRequest.of(2, 2))))
+                .isEmpty();
+    }
+
+    @Test
+    void findSummaries_shouldFilterByGroupAndPageInEitherOrder() {
+        List<Long> ids = store.insertAll(Arrays.asList(entity("b", "CAT"), entity("C", "CAT"), entity("a", "CAT"),
+                new AnimalEntity(null, "d", "description", "CAT", "BIRD", null, null, null), entity("x", "HORSE")));
+        store.deleteAnimalById("CAT", ids.get(1));
+
+        assertThat(names(store.findSummaries("CAT", null, AnimalOrder.CREATED, null, 10))).containsExactly("b", "a", "d");
+        assertThat(names(store.findSummaries("CAT", "MAMMALS", AnimalOrder.CREATED, summary(ids.get(0), null), 10)))
+                .containsExactly("a");
+        assertThat(names(store.findSummaries("CAT", null, AnimalOrder.NAME, null, 2))).containsExactly("a", "b");
+        assertThat(names(store.findSummaries("CAT", null, AnimalOrder.NAME, summary(ids.get(0), "b"), 10)))
+                .containsExactly("d");
+        store.save(entity("B", "CAT"));
+        assertThat(names(store.findSummaries("CAT", "MAMMALS", AnimalOrder.NAME, summary(ids.get(0), "b"), 10)))
+                .containsExactly("B");
+    }
+
+    @Test
+    void countByAnimalTypeAndGroup_shouldSkipDeletedRows() {
+        List<Long> ids = store.insertAll(Arrays.asList(entity("a", "CAT"), entity("b", "CAT"), entity("c", "HORSE"),
+                new AnimalEntity(null, "d", "description", "CAT", "BIRD", null, null, null)));
+        store.deleteAnimalById("CAT", ids.get(0));
+
+        assertThat(store.countByAnimalTypeAndGroup()).containsExactlyInAnyOrder(new AnimalCount("CAT", "MAMMALS", 1L),
+                new AnimalCount("CAT", "BIRD", 1L), new AnimalCount("HORSE", "MAMMALS", 1L));
+    }
+
+    @Test
+    void streamByAnimalType_shouldSkipDeletedRows() {
+        List<Long> ids = store.insertAll(Arrays.asList(entity("a", "HORSE"), entity("b", "HORSE")));
+        store.deleteAnimalById("HORSE", ids.get(0));
+
+        try (Stream<AnimalSummary> animals = store.streamByAnimalType("HORSE")) {
+            assertThat(animals.map(AnimalSummary::getName)).containsExactly("b");
+        }
+    }
+
+    @Test
+    void deleteAnimalById_shouldCompactTheTypeIndex() {
+        List<AnimalEntity> animals = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            animals.add(entity("h" + i, "HORSE"));
+        }
+        List<Long> ids = store.insertAll(animals);
+
+        for (int i = 0; i < 150; i++) {
+            store.deleteAnimalById("HORSE", ids.get(i));
+        }
+        store.save(entity("last", "HORSE"));
+
+        List<AnimalSummary> horses = store.findSummariesByAnimalType("HORSE");
+        assertThat(horses).hasSize(51);
+        assertThat(horses.get(0).getId()).isEqualTo(ids.get(150));
+        assertThat(horses.get(50).getName()).isEqualTo("last");
+    }
+
+    private static AnimalEntity entity(String name, String type) {
+        return new AnimalEntity(null, name, "description", type, "MAMMALS", null, null, null);
+    }
+
+    private static AnimalSummary summary(Long id, String name) {
+        return new AnimalSummary(id, name, null, null);
+    }
+
+    private static List<String> names(List<AnimalSummary> summaries) {
+        return summaries.stream().map(AnimalSummary::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,117 @@
+package cx.catapult.animals.repository.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongObjectMapTest {
+
+    @Test
+    void putGetAndRemove() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertThat(map.put(1, "one")).isNull();
+        assertThat(map.put(1, "uno")).isEqualTo("one");
+        assertThat(map.get(1)).isEqualTo("uno");
+        assertThat(map.get(2)).isNull();
+        assertThat(map.remove(2)).isNull();
+        assertThat(map.remove(1)).isEqualTo("uno");
+        assertThat(map.remove(1)).isNull();
+        assertThat(map.get(1)).isNull();
+        assertThat(map.size()).isZero();
+
+        assertThat(map.put(1, "again")).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void update_shouldOnlyReplacePresentKeys() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(7, "seven");
+
+        assertThat(map.update(7, value -> value + "!")).isEqualTo("seven!");
+        assertThat(map.update(8, value -> value + "!")).isNull();
+        assertThat(map.get(7)).isEqualTo("seven!");
+        assertThat(map.get(8)).isNull();
+    }
+
+    @Test
+    void replace_shouldOnlyReplaceTheExpectedValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        String seven = "seven";
+        map.put(7, seven);
+
+        assertThat(map.replace(7, new String(seven), "eight")).isFalse();
+        assertThat(map.replace(8, null, "eight")).isFalse();
+        assertThat(map.replace(7, seven, "seven!")).isTrue();
+        assertThat(map.replace(7, seven, "seven?")).isFalse();
+        assertThat(map.get(7)).isEqualTo("seven!");
+        assertThat(map.get(8)).isNull();
+    }
+
+    @Test
+    void put_shouldRejectKeysThatAreNotPositive() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertThatThrownBy(() -> map.put(0, "zero")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.put(-1, "minus")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldGrowAndDropRemovedKeysWhenRebuilding() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key);
+        }
+        assertThat(map.capacity()).isGreaterThanOrEqualTo(20_000);
+
+        for (long key = 1; key <= 10_000; key++) {
+            if (key % 100 != 0) {
+                map.remove(key);
+            }
+        }
+        for (long key = 10_001; key <= 20_000; key++) {
+            map.put(key, key);
+            map.remove(key);
+        }
+
+        assertThat(map.size()).isEqualTo(100);
+        assertThat(map.capacity()).isLessThan(20_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo(key % 100 == 0 ? key : null);
+        }
+    }
+
+    @Test
+    void readersShouldSeeEveryKeyWrittenBeforeTheyStarted() throws Exception {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key, key);
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CompletableFuture<Boolean> reader = CompletableFuture.supplyAsync(() -> {
+            boolean consistent = true;
+            while (writing.get()) {
+                for (long key = 1; key <= 1_000; key++) {
+                    consistent &= Long.valueOf(key).equals(map.get(key));
+                }
+            }
+            return consistent;
+        });
+
+        // Keeps the table rebuilding underneath the reader without touching the keys it checks.
+        for (long key = 1_001; key <= 200_000; key++) {
+            map.put(key, key);
+            if (key > 1_500) {
+                map.remove(key - 500);
+            }
+        }
+        writing.set(false);
+
+        assertThat(reader.get()).isTrue();
+    }
+}
@@ -0,0 +1,99 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.domain.AnimalStats;
+import cx.catapult.animals.repository.AnimalStore;
+import cx.catapult.animals.repository.entity.AnimalCount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnimalStatisticsTest {
+
+    @Mock
+    AnimalStore animalRepository;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    GenericApplicationContext context = new GenericApplicationContext();
+    AnimalStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new AnimalStatistics(animalRepository, new AnimalsProperties(), registry, context);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.destroy();
+    }
+
+    @Test
+    void shouldCountCreatesAndDeletesPerTypeAndGroup() {
+        statistics.added("CAT", "MAMMALS");
+        statistics.added("CAT", "MAMMALS");
+        statistics.added("CAT", "BIRD");
+        statistics.added("HORSE", "MAMMALS");
+        statistics.removed("CAT", "BIRD");
+        statistics.added("FISH", "FISH");
+        statistics.removed("FISH", "FISH");
+
+        AnimalStats stats = statistics.get();
+
+        assertThat(stats.getTotal()).isEqualTo(3);
+        assertThat(stats.getTypes()).containsOnlyKeys("CAT", "HORSE");
+        assertThat(stats.getTypes().get("CAT").getTotal()).isEqualTo(2);
+        assertThat(stats.getTypes().get("CAT").getGroups()).containsOnlyKeys("MAMMALS");
+        assertThat(stats.getTypes().get("HORSE").getGroups()).containsEntry("MAMMALS", 1L);
+    }
+
+    @Test
+    void reconcileShouldReplaceTheCountsAndRecordTheDrift() {
+        statistics.added("CAT", "MAMMALS");
+        statistics.added("CAT", "BIRD");
+        statistics.added("HORSE", "MAMMALS");
+        when(animalRepository.countByAnimalTypeAndGroup()).thenReturn(asList(
+                new AnimalCount("CAT", "MAMMALS", 4L), new AnimalCount("CAT", "REPTILES", 2L)));
+
+        statistics.reconcileQuietly();
+
+        AnimalStats stats = statistics.get();
+        assertThat(stats.getTotal()).isEqualTo(6);
+        assertThat(stats.getTypes()).containsOnlyKeys("CAT");
+        assertThat(stats.getTypes().get("CAT").getGroups()).containsEntry("MAMMALS", 4L).containsEntry("REPTILES", 2L);
+        // 3 missing cat mammals, 2 missing cat reptiles, 1 extra cat bird and 1 extra horse.
+        assertThat(registry.get("animals.stats.drift").summary().totalAmount()).isEqualTo(7);
+        assertThat(registry.get("animals.stats.reconcile").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReconcileOnlyWhenItsOwnContextIsRefreshed() {
+        statistics.added("CAT", "MAMMALS");
+
+        statistics.onContextRefreshed(new ContextRefreshedEvent(new GenericApplicationContext(context)));
+        assertThat(statistics.get().getTotal()).isEqualTo(1);
+        statistics.onContextRefreshed(new ContextRefreshedEvent(context));
+        assertThat(statistics.get().getTotal()).isZero();
+    }
+
+    @Test
+    void reconcileShouldKeepTheCountsWhenTheStoreFails() {
+        statistics.added("CAT", "MAMMALS");
+        when(animalRepository.countByAnimalTypeAndGroup()).thenThrow(new IllegalStateException("down"));
+
+        statistics.reconcileQuietly();
+
+        assertThat(statistics.get().getTotal()).isEqualTo(1);
+        assertThat(registry.get("animals.stats.reconcile").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+}
@@ -1,14 +1,19 @@
 package cx.catapult.animals.service;
 
+import cx.catapult.animals.config.AnimalCaches;
+import cx.catapult.animals.config.AnimalsProperties;
 import cx.catapult.animals.domain.Cat;
 import cx.catapult.animals.domain.Group;
 import cx.catapult.animals.repository.AnimalRepository;
 import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.Optional;
 
@@ -51,17 +56,26 @@ class CatsServiceTest {
 
     @Test
     void allShouldWork() {
-        AnimalEntity animalEntity = getAnimalEntity();
-        when(animalRepository.findByAnimalType("CAT")).thenReturn(asList(animalEntity));
+        AnimalSummary animalSummary = getAnimalSummary();
+        when(animalRepository.findSummariesByAnimalType("CAT")).thenReturn(asList(animalSummary));
 
         assertThat(service.all().size()).isEqualTo(1);
-        verify(animalRepository,times(1)).findByAnimalType(eq("CAT"));
+        verify(animalRepository,times(1)).findSummariesByAnimalType(eq("CAT"));
+    }
+
+    @Test
+    void pageShouldWork() {
+        AnimalSummary animalSummary = getAnimalSummary();
+        when(animalRepository.findSummariesByAnimalTypeAndIdGreaterThan("CAT", 0L, PageRequest.of(0, 11)))
+                .thenReturn(asList(animalSummary));
+
+        assertThat(service.page("", 10).getItems().size()).isEqualTo(1);
     }
 
     @Test
     void getShouldWork() {
-        AnimalEntity animalEntity = getAnimalEntity();
-        when(animalRepository.findById(1L)).thenReturn(Optional.of(animalEntity));
+        AnimalSummary animalSummary = getAnimalSummary();
+        when(animalRepository.findSummaryById("CAT", 1L)).thenReturn(Optional.of(animalSummary));
 
         Cat actual = service.get("1");
         
@@ -69,22 +83,34 @@ class CatsServiceTest {
         assertThat(actual.getDescription()).isEqualTo(cat.getDescription());
         assertThat(actual.getGroup()).isEqualTo(cat.getGroup());
         assertThat(actual.getId()).isEqualTo("1");
-        verify(animalRepository,times(1)).findById(eq(1L));
+        verify(animalRepository,times(1)).findSummaryById(eq("CAT"), eq(1L));
+    }
+
+    @Test
+    void getShouldNotUseCacheWhenNotConfigured() {
+        service.setAnimalCaches(new AnimalCaches(new AnimalsProperties(), new SimpleMeterRegistry()));
+        AnimalSummary animalSummary = getAnimalSummary();
+        when(animalRepository.findSummaryById("CAT", 1L)).thenReturn(Optional.of(animalSummary));
+
+        service.get("1");
+        service.get("1");
+
+        verify(animalRepository,times(2)).findSummaryById(eq("CAT"), eq(1L));
     }
 
     @Test
     void updateShouldWork() {
-        AnimalEntity animalEntity = getAnimalEntity();
-        when(animalRepository.findById(1L)).thenReturn(Optional.ofNullable(animalEntity));
-        when(animalRepository.save(any(AnimalEntity.class))).thenReturn(any(AnimalEntity.class));
+        when(animalRepository.updateNameAndDescription(eq("CAT"), eq(1L), eq("Test"), eq(cat.getDescription()), any())).thenReturn(1);
         cat.setName("Test");
         cat.setId("1");
 
         service.update(cat);
 
-        verify(animalRepository,times(1)).findById(eq(1L));
-        animalEntity.setName("Test");
-        verify(animalRepository,times(1)).save(eq(animalEntity));
+        verify(animalRepository,times(1)).updateNameAndDescription(eq("CAT"), eq(1L), eq("Test"), eq(cat.getDescription()), any());
+    }
+
+    private AnimalSummary getAnimalSummary() {
+        return AnimalSummary.of(getAnimalEntity());
     }
 
     private AnimalEntity getAnimalEntity() {
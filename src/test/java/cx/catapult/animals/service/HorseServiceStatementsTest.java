@@ -0,0 +1,116 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.domain.Horse;
+import cx.catapult.animals.exception.AnimalNotFoundException;
+import cx.catapult.animals.repository.AnimalRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Execution(ExecutionMode.SAME_THREAD)
+class HorseServiceStatementsTest {
+
+    @Autowired
+    private HorseService service;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    private Statistics statistics;
+    private Horse horse;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        horse = service.create(new Horse("Spirit", "Black Stallion"));
+        statistics.clear();
+    }
+
+    @Test
+    void updateShouldUseOneStatement() {
+        horse.setName("Warrior");
+
+        service.update(horse);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        service.delete(horse.getId());
+    }
+
+    @Test
+    void patchShouldReadOnceAndWriteOnlyWhenSomethingChanged() {
+        service.patch(Horse.builder().id(horse.getId()).name("Spirit").build());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        Horse patched = service.patch(Horse.builder().id(horse.getId()).description("Grey Stallion").build());
+
+        assertThat(patched.getName()).isEqualTo("Spirit");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        service.delete(horse.getId());
+    }
+
+    @Test
+    void deleteShouldUseOneStatement() {
+        service.delete(horse.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void missingRecordsShouldUseOneStatement() {
+        service.delete(horse.getId());
+        statistics.clear();
+        // Created at version 0; without a version the update is unconditional and reports the missing record.
+        horse.setVersion(null);
+
+        assertThrows(AnimalNotFoundException.class, () -> service.update(horse));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThrows(AnimalNotFoundException.class, () -> service.delete(horse.getId()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void everyWriteShouldBumpTheCollectionVersion() {
+        List<String> versions = new ArrayList<>();
+        versions.add(service.getVersion());
+        List<String> ids = service.createAll(Arrays.asList(new Horse("Storm", "Grey"), new Horse("Blaze", "Chestnut")));
+        versions.add(service.getVersion());
+        horse.setName("Warrior");
+        service.update(horse);
+        versions.add(service.getVersion());
+        service.patch(Horse.builder().id(horse.getId()).description("Grey Stallion").build());
+        versions.add(service.getVersion());
+        service.delete(horse.getId());
+        versions.add(service.getVersion());
+        ids.forEach(service::delete);
+
+        assertThat(versions).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void missedWritesShouldLeaveTheCollectionVersion() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(animalRepository.updateNameAndDescription("UNWRITTEN", 1L, "Spirit", "Stallion", now)).isZero();
+        assertThat(animalRepository.patchIfVersion("UNWRITTEN", 1L, 0, "Spirit", null, now)).isZero();
+        assertThat(animalRepository.deleteAnimalById("UNWRITTEN", 1L)).isZero();
+        assertThat(animalRepository.findCollectionVersion("UNWRITTEN")).isZero();
+        service.delete(horse.getId());
+    }
+}
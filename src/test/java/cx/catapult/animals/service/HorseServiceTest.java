@@ -1,24 +1,50 @@
 package cx.catapult.animals.service;
 
+import cx.catapult.animals.config.AnimalCaches;
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.domain.AnimalLookup;
+import cx.catapult.animals.domain.AnimalPage;
+import cx.catapult.animals.domain.EncodedAnimal;
 import cx.catapult.animals.domain.Group;
 import cx.catapult.animals.domain.Horse;
 import cx.catapult.animals.exception.AnimalNotFoundException;
+import cx.catapult.animals.exception.InvalidRequestException;
+import cx.catapult.animals.exception.PreconditionFailedException;
+import cx.catapult.animals.repository.AnimalOrder;
 import cx.catapult.animals.repository.AnimalRepository;
 import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,6 +54,7 @@ class HorseServiceTest {
 
     HorseService service ;
     Horse horse;
+    GenericApplicationContext context = new GenericApplicationContext();
 
     @Mock
     AnimalRepository animalRepository;
@@ -36,6 +63,12 @@ class HorseServiceTest {
     void setUp() {
         horse = new Horse("Spirit", "Black Stallion");
         service = new HorseService(animalRepository);
+        service.setApplicationContext(context);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
     }
 
     @Test
@@ -52,19 +85,120 @@ class HorseServiceTest {
         verify(animalRepository,times(1)).save(any(AnimalEntity.class));
     }
 
+    @Test
+    void createAllShouldWork() {
+        when(animalRepository.insertAll(any())).thenReturn(asList(7L, 8L));
+
+        List<String> ids = service.createAll(asList(horse, new Horse("Rain", "Mare")));
+
+        assertThat(ids).containsExactly("7", "8");
+        verify(animalRepository,times(1)).insertAll(any());
+    }
+
+    @Test
+    void versionShouldBeReadFromTheStore() {
+        when(animalRepository.findCollectionVersion("HORSE")).thenReturn(0L, 1295L);
+
+        assertThat(service.getVersion()).isEqualTo("0");
+        assertThat(service.getVersion()).isEqualTo("zz");
+    }
+
     @Test
     public void allShouldWork() {
-        AnimalEntity animalEntity = getAnimalEntity();
-        when(animalRepository.findByAnimalType("HORSE")).thenReturn(asList(animalEntity));
+        AnimalSummary animalSummary = getAnimalSummary();
+        when(animalRepository.findSummariesByAnimalType("HORSE")).thenReturn(asList(animalSummary));
 
         assertThat(service.all().size()).isEqualTo(1);
-        verify(animalRepository,times(1)).findByAnimalType(eq("HORSE"));
+        verify(animalRepository,times(1)).findSummariesByAnimalType(eq("HORSE"));
+    }
+
+    @Test
+    public void pageShouldReturnNextCursorWhenMoreRecordsExist() {
+        AnimalSummary first = getAnimalSummary();
+        AnimalSummary second = new AnimalSummary(2L, "Rain", "Mare", Group.MAMMALS.name());
+        when(animalRepository.findSummariesByAnimalTypeAndIdGreaterThan("HORSE", 0L, PageRequest.of(0, 2)))
+                .thenReturn(asList(first, second));
+
+        AnimalPage<Horse> page = service.page(null, 1);
+
+        assertThat(page.getItems().size()).isEqualTo(1);
+        assertThat(page.getItems().get(0).getId()).isEqualTo("1");
+        assertThat(page.getNext()).isNotEmpty();
+
+        when(animalRepository.findSummariesByAnimalTypeAndIdGreaterThan("HORSE", 1L, PageRequest.of(0, 2)))
+                .thenReturn(asList(second));
+
+        page = service.page(page.getNext(), 1);
+
+        assertThat(page.getItems().get(0).getId()).isEqualTo("2");
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    public void pageShouldThrowExceptionWhenCursorIsInvalid() {
+        assertThrows(InvalidRequestException.class, () -> service.page("not a cursor", 10));
+        assertThrows(InvalidRequestException.class, () -> service.page("YWJj", 10));
+    }
+
+    @Test
+    public void allShouldFilterByGroupAndSortByName() {
+        when(animalRepository.findSummaries("HORSE", "MAMMALS", AnimalOrder.NAME, null, Integer.MAX_VALUE))
+                .thenReturn(asList(getAnimalSummary()));
+
+        assertThat(service.all("mammals", "name").size()).isEqualTo(1);
+        assertThat(service.all(null, null)).isEmpty();
+        verify(animalRepository).findSummariesByAnimalType("HORSE");
+    }
+
+    @Test
+    public void pageShouldCarryTheNameInNameOrderCursors() {
+        AnimalSummary first = getAnimalSummary();
+        AnimalSummary second = new AnimalSummary(2L, "Rain", "Mare", Group.MAMMALS.name());
+        when(animalRepository.findSummaries("HORSE", null, AnimalOrder.NAME, null, 2)).thenReturn(asList(first, second));
+
+        AnimalPage<Horse> page = service.page(null, 1, null, "NAME");
+
+        assertThat(page.getItems().get(0).getId()).isEqualTo("1");
+        AnimalSummary after = BaseService.decodeCursor(page.getNext(), AnimalOrder.NAME);
+        assertThat(after.getId()).isEqualTo(1L);
+        assertThat(after.getName()).isEqualTo(first.getName());
+
+        when(animalRepository.findSummaries(eq("HORSE"), eq("BIRD"), eq(AnimalOrder.CREATED), any(), eq(2)))
+                .thenReturn(asList(second));
+
+        page = service.page(BaseService.encodeCursor(first, AnimalOrder.CREATED), 1, "BIRD", "created");
+
+        assertThat(page.getItems().get(0).getId()).isEqualTo("2");
+        assertThat(page.getNext()).isNull();
+        assertThat(service.page(null, 1, null, null).getItems()).isEmpty();
+    }
+
+    @Test
+    public void pageShouldRejectInvalidSortGroupAndCursor() {
+        assertThrows(InvalidRequestException.class, () -> service.page(null, 10, null, "age"));
+        assertThrows(InvalidRequestException.class, () -> service.all("DRAGON", null));
+        assertThrows(InvalidRequestException.class, () -> service.page("YWJj", 10, null, "name"));
+        assertThrows(InvalidRequestException.class, () -> service.page("not a cursor", 10, null, "name"));
+        assertThrows(InvalidRequestException.class, () -> service.page("YTpi", 10, null, "name"));
+        assertThat(BaseService.decodeCursor("", AnimalOrder.NAME)).isNull();
+    }
+
+    @Test
+    public void exportShouldWork() {
+        AnimalSummary animalSummary = getAnimalSummary();
+        when(animalRepository.streamByAnimalType("HORSE")).thenReturn(Stream.of(animalSummary));
+        List<Horse> exported = new ArrayList<>();
+
+        service.export(exported::add);
+
+        assertThat(exported.size()).isEqualTo(1);
+        assertThat(exported.get(0).getId()).isEqualTo("1");
     }
 
     @Test
     public void getShouldWork() {
-        AnimalEntity animalEntity = getAnimalEntity();
-        when(animalRepository.findById(1L)).thenReturn(Optional.of(animalEntity));
+        AnimalSummary animalSummary = getAnimalSummary();
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(animalSummary));
 
         Horse actual = service.get("1");
 
@@ -72,38 +206,372 @@ class HorseServiceTest {
         assertThat(actual.getDescription()).isEqualTo(horse.getDescription());
         assertThat(actual.getGroup()).isEqualTo(horse.getGroup());
         assertThat(actual.getId()).isEqualTo("1");
-        verify(animalRepository,times(1)).findById(eq(1L));
+        verify(animalRepository,times(1)).findSummaryById(eq("HORSE"), eq(1L));
+    }
+
+    @Test
+    public void getShouldUseCacheWhenEnabled() {
+        MeterRegistry meterRegistry = enableCache();
+        AnimalSummary animalSummary = getAnimalSummary();
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(animalSummary));
+
+        service.get("1");
+        Horse actual = service.get("1");
+
+        assertThat(actual.getName()).isEqualTo(horse.getName());
+        verify(animalRepository,times(1)).findSummaryById(eq("HORSE"), eq(1L));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "horse").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    public void getShouldNotCacheMissingRecords() {
+        enableCache();
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.empty());
+
+        assertThrows(AnimalNotFoundException.class, () -> service.get("1"));
+        assertThrows(AnimalNotFoundException.class, () -> service.get("1"));
+
+        verify(animalRepository,times(2)).findSummaryById(eq("HORSE"), eq(1L));
+    }
+
+    @Test
+    public void getAllShouldLookUpEveryIdWithOneQueryInRequestOrder() {
+        when(animalRepository.findSummariesByAnimalTypeAndIdIn("HORSE", asList(2L, 1L, 9L)))
+                .thenReturn(asList(getAnimalSummary(), new AnimalSummary(2L, "Rain", "Mare", Group.MAMMALS.name(), null, 0L)));
+
+        List<AnimalLookup<Horse>> lookups = service.getAll(asList("2", "1", "abc", "2", "9"));
+
+        assertThat(lookups).extracting(AnimalLookup::getId).containsExactly("2", "1", "abc", "2", "9");
+        assertThat(lookups).extracting(AnimalLookup::isFound).containsExactly(true, true, false, true, false);
+        assertThat(lookups.get(0).getAnimal().getName()).isEqualTo("Rain");
+        assertThat(lookups.get(1).getAnimal().getName()).isEqualTo("Spirit");
+        assertThat(lookups.get(2).getAnimal()).isNull();
+        verify(animalRepository,times(1)).findSummariesByAnimalTypeAndIdIn(any(), any());
+    }
+
+    @Test
+    public void getAllShouldOnlyQueryIdsMissingFromTheCache() {
+        enableCache();
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(getAnimalSummary()));
+        service.get("1");
+
+        List<AnimalLookup<Horse>> lookups = service.getAll(asList("1", "2"));
+
+        assertThat(lookups).extracting(AnimalLookup::isFound).containsExactly(true, false);
+        verify(animalRepository,times(1)).findSummariesByAnimalTypeAndIdIn("HORSE", Collections.singletonList(2L));
+    }
+
+    @Test
+    public void getAllShouldNotQueryWithoutAValidId() {
+        List<AnimalLookup<Horse>> lookups = service.getAll(asList("abc", "0"));
+
+        assertThat(lookups).extracting(AnimalLookup::isFound).containsExactly(false, false);
+        verify(animalRepository,never()).findSummariesByAnimalTypeAndIdIn(any(), any());
+    }
+
+    @Test
+    public void getAllShouldRejectNoneOrTooManyIds() {
+        AnimalsProperties properties = new AnimalsProperties();
+        properties.getMultiGet().setMaxIds(2);
+        service.setAnimalsProperties(properties);
+
+        assertThrows(InvalidRequestException.class, () -> service.getAll(Collections.emptyList()));
+        InvalidRequestException thrown = assertThrows(InvalidRequestException.class, () -> service.getAll(asList("1", "2", "3")));
+        assertThat(thrown.getMessage()).isEqualTo("Between 1 and 2 IDs can be requested at once");
+    }
+
+    @Test
+    public void updateAndDeleteShouldInvalidateCache() {
+        enableCache();
+        AnimalSummary animalSummary = getAnimalSummary();
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(animalSummary));
+        when(animalRepository.updateNameAndDescription(eq("HORSE"), eq(1L), any(), any(), any())).thenReturn(1);
+        when(animalRepository.deleteAnimalById("HORSE", 1L)).thenReturn(1);
+        horse.setId("1");
+
+        service.get("1");
+        service.update(horse);
+        service.get("1");
+        service.delete("1");
+        service.get("1");
+
+        verify(animalRepository,times(3)).findSummaryById(eq("HORSE"), eq(1L));
+    }
+
+    @Test
+    public void getEncodedShouldEncodeEveryTimeWhenResponseCacheIsDisabled() {
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(getAnimalSummary()));
+
+        EncodedAnimal encoded = service.get("1", HorseServiceTest::encode);
+        service.get("1", HorseServiceTest::encode);
+
+        assertThat(new String(encoded.getBody())).isEqualTo("Spirit");
+        assertThat(service.getEncodedIfPresent("1")).isNull();
+        verify(animalRepository,times(2)).findSummaryById(eq("HORSE"), eq(1L));
+    }
+
+    @Test
+    public void getEncodedShouldKeepEncodingsUntilUpdateOrDelete() {
+        AnimalsProperties properties = new AnimalsProperties();
+        properties.getResponseCache().setEnabled(true);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service.setAnimalCaches(new AnimalCaches(properties, meterRegistry));
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(getAnimalSummary()));
+        when(animalRepository.updateNameAndDescription(eq("HORSE"), eq(1L), any(), any(), any())).thenReturn(1);
+        when(animalRepository.deleteAnimalById("HORSE", 1L)).thenReturn(1);
+        horse.setId("1");
+
+        assertThat(service.getEncodedIfPresent("1")).isNull();
+        service.get("1", HorseServiceTest::encode);
+        assertThat(service.getEncodedIfPresent("1").getBody()).isEqualTo("Spirit".getBytes());
+        assertThat(meterRegistry.get("animals.response.cache.size").tag("type", "horse").gauge().value()).isEqualTo(6.0);
+        service.update(horse);
+        assertThat(service.getEncodedIfPresent("1")).isNull();
+        service.get("1", HorseServiceTest::encode);
+        service.get("1", HorseServiceTest::encode);
+        service.delete("1");
+        assertThat(service.getEncodedIfPresent("1")).isNull();
+
+        verify(animalRepository,times(2)).findSummaryById(eq("HORSE"), eq(1L));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "horse.responses").tag("result", "hit").functionCounter().count())
+                .isEqualTo(2.0);
     }
 
     @Test
     void updateShouldWork() {
-        AnimalEntity animalEntity = getAnimalEntity();
-        when(animalRepository.findById(1L)).thenReturn(Optional.ofNullable(animalEntity));
-        when(animalRepository.save(any(AnimalEntity.class))).thenReturn(any(AnimalEntity.class));
+        when(animalRepository.updateNameAndDescription(eq("HORSE"), eq(1L), eq("Test"), eq(horse.getDescription()), any())).thenReturn(1);
         horse.setName("Test");
         horse.setId("1");
 
         service.update(horse);
 
-        verify(animalRepository,times(1)).findById(eq(1L));
-        animalEntity.setName("Test");
-        verify(animalRepository,times(1)).save(eq(animalEntity));
+        verify(animalRepository,times(1)).updateNameAndDescription(eq("HORSE"), eq(1L), eq("Test"), eq(horse.getDescription()), any());
+        verify(animalRepository,never()).findSummaryById(eq("HORSE"), any());
+        verify(animalRepository,never()).save(any());
+    }
+
+    @Test
+    void update_shouldThrowExceptionWhenIdNotFound() {
+        when(animalRepository.updateNameAndDescription(eq("HORSE"), eq(1L), any(), any(), any())).thenReturn(0);
+        horse.setId("1");
+
+        assertThrows(AnimalNotFoundException.class, () -> service.update(horse));
     }
 
     @Test
     public void deleteShouldWork() {
+        when(animalRepository.deleteAnimalById("HORSE", 1L)).thenReturn(1);
+
         service.delete("1");
 
-        verify(animalRepository,times(1)).deleteById(eq(1L));
+        verify(animalRepository,times(1)).deleteAnimalById(eq("HORSE"), eq(1L));
+        verify(animalRepository,never()).findSummaryById(eq("HORSE"), any());
+    }
+
+    @Test
+    public void delete_shouldThrowExceptionWhenIdNotFound() {
+        when(animalRepository.deleteAnimalById("HORSE", 1L)).thenReturn(0);
+
+        assertThrows(AnimalNotFoundException.class, () -> service.delete("1"));
+    }
+
+    @Test
+    void createAndDeleteShouldUpdateTheStatistics() {
+        AnimalStatistics statistics = new AnimalStatistics(animalRepository, new AnimalsProperties(), new SimpleMeterRegistry(), context);
+        service.setAnimalStatistics(statistics);
+        when(animalRepository.save(any(AnimalEntity.class))).thenReturn(getAnimalEntity());
+        when(animalRepository.insertAll(any())).thenReturn(asList(7L));
+        when(animalRepository.deleteAnimalById(eq("HORSE"), any())).thenReturn(1);
+
+        service.create(horse);
+        service.createAll(asList(new Horse("Rain", "Mare")));
+        assertThat(statistics.get().getTypes().get("HORSE").getGroups()).containsEntry("MAMMALS", 2L);
+
+        service.delete("1");
+        service.delete("9");
+        assertThat(statistics.get().getTypes().get("HORSE").getGroups()).containsEntry("MAMMALS", 1L);
+        statistics.destroy();
+    }
+
+    @Test
+    void searchShouldFindLoadedAndCreatedAnimals() {
+        when(animalRepository.streamByAnimalType("HORSE")).thenReturn(Stream.of(new AnimalSummary(5L, "Storm", "Grey mare", "MAMMALS")));
+        when(animalRepository.save(any(AnimalEntity.class))).thenReturn(getAnimalEntity());
+
+        service.loadSearchIndex(new ContextRefreshedEvent(context));
+        service.create(horse);
+
+        assertThat(service.search("s", 10)).extracting(Horse::getName).containsExactly("Storm", "Spirit");
+        assertThat(service.search("stallion", 10)).extracting(Horse::getId).containsExactly("1");
+    }
+
+    @Test
+    void loadSearchIndexShouldIgnoreTheRefreshOfChildContexts() {
+        service.loadSearchIndex(new ContextRefreshedEvent(new GenericApplicationContext(context)));
+
+        verify(animalRepository, never()).streamByAnimalType(any());
     }
 
-//    @Test
-//    public void delete_shouldThrowExceptionWhenIdNotFound() {
-//        when(animalRepository.deleteById(0L)).thenThrow(new EmptyResultDataAccessException());
-//        service.delete("1");
-//
-//        verify(animalRepository,times(1)).deleteById(eq(1L));
-//    }
+    @Test
+    void createShouldWaitForTheWriteBehindQueue() {
+        enableWriteBehind(AnimalsProperties.Ack.ENQUEUE);
+        when(animalRepository.insertAll(any())).thenReturn(asList(1L));
+        Horse actual = service.create(horse);
+
+        assertThat(actual.getId()).isEqualTo("1");
+        assertThat(actual.getName()).isEqualTo(horse.getName());
+        verify(animalRepository,never()).save(any());
+    }
+
+    @Test
+    void updateShouldWaitForTheWriteBehindFlush() {
+        enableWriteBehind(AnimalsProperties.Ack.FLUSH);
+        when(animalRepository.updateAll(any())).thenReturn(new int[] {0});
+        horse.setId("1");
+
+        assertThrows(AnimalNotFoundException.class, () -> service.update(horse));
+        verify(animalRepository,never()).updateNameAndDescription(eq("HORSE"), any(), any(), any(), any());
+    }
+
+    @Test
+    void queuedUpdatesShouldOnlyBeReindexedOnceWritten() {
+        when(animalRepository.streamByAnimalType("HORSE")).thenReturn(Stream.of(getAnimalSummary()));
+        when(animalRepository.updateAll(any())).thenReturn(new int[] {1, 0});
+        enableWriteBehind(AnimalsProperties.Ack.ENQUEUE, 100);
+        service.loadSearchIndex(new ContextRefreshedEvent(context));
+        horse.setId("1");
+        horse.setName("Storm");
+
+        service.update(horse);
+        service.update(Horse.builder().id("2").name("Rain").description("Missing").build());
+        assertThat(service.search("storm", 10)).isEmpty();
+        service.destroy();
+
+        assertThat(service.search("storm", 10)).extracting(Horse::getId).containsExactly("1");
+        assertThat(service.search("rain", 10)).isEmpty();
+    }
+
+    @Test
+    void versionedWritesShouldFirstWriteTheQueuedUpdateOfTheAnimal() {
+        enableWriteBehind(AnimalsProperties.Ack.ENQUEUE, 100);
+        when(animalRepository.updateAll(any())).thenReturn(new int[] {1});
+        when(animalRepository.updateNameAndDescriptionIfVersion(eq("HORSE"), eq(1L), eq(0L), any(), any(), any())).thenReturn(0);
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(getAnimalSummary(1L)));
+        horse.setId("1");
+
+        Horse stale = Horse.builder().id("1").name("Storm").description("Grey").build();
+        stale.setVersion(0L);
+
+        service.update(horse);
+        assertThrows(PreconditionFailedException.class, () -> service.update(stale));
+        service.update(horse);
+        assertThrows(PreconditionFailedException.class, () -> service.patch(stale));
+
+        InOrder inOrder = inOrder(animalRepository);
+        inOrder.verify(animalRepository).updateAll(any());
+        inOrder.verify(animalRepository).updateNameAndDescriptionIfVersion(eq("HORSE"), eq(1L), eq(0L), any(), any(), any());
+        inOrder.verify(animalRepository).updateAll(any());
+        inOrder.verify(animalRepository).findSummaryById("HORSE", 1L);
+    }
+
+    @Test
+    void updateWithVersionShouldOnlyApplyAtThatVersion() {
+        enableWriteBehind(AnimalsProperties.Ack.ENQUEUE);
+        when(animalRepository.updateNameAndDescriptionIfVersion(eq("HORSE"), eq(1L), eq(3L), any(), any(), any())).thenReturn(1);
+        when(animalRepository.updateNameAndDescriptionIfVersion(eq("HORSE"), eq(1L), eq(2L), any(), any(), any())).thenReturn(0);
+        horse.setId("1");
+        horse.setVersion(3L);
+
+        service.update(horse);
+
+        assertThat(horse.getVersion()).isEqualTo(4L);
+        horse.setVersion(2L);
+        assertThrows(PreconditionFailedException.class, () -> service.update(horse));
+        service.destroy();
+        verify(animalRepository,never()).updateAll(any());
+    }
+
+    @Test
+    void patchShouldOnlyWriteChangedColumns() {
+        enableCache();
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(getAnimalSummary(3L)));
+        when(animalRepository.patchIfVersion(eq("HORSE"), eq(1L), eq(3L), isNull(), eq("Grey"), any())).thenReturn(1);
+        Horse unchanged = service.patch(Horse.builder().id("1").name("Spirit").description("Black Stallion").build());
+        Horse patched = service.patch(Horse.builder().id("1").name("Spirit").description("Grey").build());
+
+        assertThat(unchanged.getVersion()).isEqualTo(3L);
+        assertThat(patched.getDescription()).isEqualTo("Grey");
+        assertThat(patched.getVersion()).isEqualTo(4L);
+        verify(animalRepository,times(1)).patchIfVersion(eq("HORSE"), any(), eq(3L), any(), any(), any());
+    }
+
+    @Test
+    void patchShouldStartOverUnlessItCarriesAVersion() {
+        when(animalRepository.findSummaryById("HORSE", 1L)).thenReturn(Optional.of(getAnimalSummary(3L)));
+        when(animalRepository.patchIfVersion(eq("HORSE"), eq(1L), eq(3L), isNull(), eq("Grey"), any())).thenReturn(0);
+        Horse changes = Horse.builder().id("1").description("Grey").build();
+
+        assertThrows(PreconditionFailedException.class, () -> service.patch(changes));
+        verify(animalRepository,times(BaseService.MAX_PATCH_ATTEMPTS)).patchIfVersion(eq("HORSE"), any(), anyLong(), any(), any(), any());
+
+        changes.setVersion(3L);
+        assertThrows(PreconditionFailedException.class, () -> service.patch(changes));
+        changes.setVersion(2L);
+        assertThrows(PreconditionFailedException.class, () -> service.patch(changes));
+        verify(animalRepository,times(BaseService.MAX_PATCH_ATTEMPTS + 1)).patchIfVersion(eq("HORSE"), any(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void updateShouldReturnOnceQueuedWhenAckingOnEnqueue() {
+        enableWriteBehind(AnimalsProperties.Ack.ENQUEUE);
+        when(animalRepository.updateAll(any())).thenReturn(new int[] {0});
+        horse.setId("1");
+
+        service.update(horse);
+        service.destroy();
+
+        verify(animalRepository,times(1)).updateAll(any());
+    }
+
+    private void enableWriteBehind(AnimalsProperties.Ack ack) {
+        enableWriteBehind(ack, 1);
+    }
+
+    /**
+     * Only {@code batchSize} pending writes or closing the service flush the queue.
+     */
+    private void enableWriteBehind(AnimalsProperties.Ack ack, int batchSize) {
+        AnimalsProperties properties = new AnimalsProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setBatchSize(batchSize);
+        properties.getWriteBehind().setFlushInterval(Duration.ofHours(1));
+        properties.getWriteBehind().setAck(ack);
+        service.setWriteBehindQueues(new WriteBehindQueues(properties, new StaticListableBeanFactory()
+                .getBeanProvider(PlatformTransactionManager.class), new SimpleMeterRegistry()));
+    }
+
+    private MeterRegistry enableCache() {
+        AnimalsProperties properties = new AnimalsProperties();
+        AnimalsProperties.CacheSettings settings = new AnimalsProperties.CacheSettings();
+        settings.setEnabled(true);
+        properties.getCache().put("horse", settings);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service.setAnimalCaches(new AnimalCaches(properties, meterRegistry));
+        return meterRegistry;
+    }
+
+    private static EncodedAnimal encode(Horse horse) {
+        return new EncodedAnimal(Collections.emptyMap(), horse.getName().getBytes(), null);
+    }
+
+    private AnimalSummary getAnimalSummary() {
+        return AnimalSummary.of(getAnimalEntity());
+    }
+
+    private AnimalSummary getAnimalSummary(Long version) {
+        return new AnimalSummary(1L, "Spirit", "Black Stallion", Group.MAMMALS.name(), null, version);
+    }
 
     private AnimalEntity getAnimalEntity() {
         return AnimalEntity.builder()
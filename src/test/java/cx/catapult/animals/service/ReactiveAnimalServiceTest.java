@@ -0,0 +1,70 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.domain.Horse;
+import cx.catapult.animals.exception.PreconditionFailedException;
+import cx.catapult.animals.repository.AnimalRepository;
+import cx.catapult.animals.repository.ReactiveAnimalRepository;
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveAnimalServiceTest {
+
+    ReactiveAnimalService<Horse> service;
+
+    @Mock
+    ReactiveAnimalRepository reactiveRepository;
+    @Mock
+    AnimalRepository animalRepository;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReactiveAnimalService<>(reactiveRepository, new HorseService(animalRepository));
+    }
+
+    @Test
+    void patchShouldStartOverWhenTheAnimalChangedSinceItWasRead() {
+        when(reactiveRepository.findSummaryById("HORSE", 1L)).thenReturn(Mono.just(summary(3L)), Mono.just(summary(4L)));
+        when(reactiveRepository.patchIfVersion(eq("HORSE"), eq(1L), eq(3L), isNull(), eq("Grey"), any())).thenReturn(Mono.just(0));
+        when(reactiveRepository.patchIfVersion(eq("HORSE"), eq(1L), eq(4L), isNull(), eq("Grey"), any())).thenReturn(Mono.just(1));
+
+        Horse patched = service.patch(changes(null)).block();
+
+        assertThat(patched.getDescription()).isEqualTo("Grey");
+        assertThat(patched.getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void patchShouldGiveUpAfterTheLastAttempt() {
+        when(reactiveRepository.findSummaryById("HORSE", 1L)).thenReturn(Mono.just(summary(3L)));
+        when(reactiveRepository.patchIfVersion(eq("HORSE"), eq(1L), eq(3L), isNull(), eq("Grey"), any())).thenReturn(Mono.just(0));
+
+        assertThrows(PreconditionFailedException.class, () -> service.patch(changes(null)).block());
+        assertThrows(PreconditionFailedException.class, () -> service.patch(changes(3L)).block());
+        verify(reactiveRepository, times(BaseService.MAX_PATCH_ATTEMPTS + 1)).patchIfVersion(eq("HORSE"), any(), eq(3L), any(), any(), any());
+    }
+
+    private static Horse changes(Long version) {
+        Horse changes = Horse.builder().id("1").description("Grey").build();
+        changes.setVersion(version);
+        return changes;
+    }
+
+    private static AnimalSummary summary(Long version) {
+        return new AnimalSummary(1L, "Spirit", "Black Stallion", "MAMMALS", null, version);
+    }
+}
@@ -0,0 +1,108 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.repository.entity.AnimalSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    private final SearchIndex index = new SearchIndex();
+
+    @Test
+    void search_shouldMatchWordPrefixesInNamesAndDescriptions() {
+        put(1, "Tom", "Grey tabby");
+        put(2, "Tabitha", "Ginger");
+        put(3, "Felix", "Black and white");
+
+        assertThat(ids(index.search("tab", 10))).containsExactly(2L, 1L);
+        assertThat(ids(index.search("G", 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("wh", 10))).containsExactly(3L);
+        assertThat(index.search("dog", 10)).isEmpty();
+        assertThat(index.search("tom ginger", 10)).isEmpty();
+        assertThat(index.search(" ?! ", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldMatchSubstringsOfThreeOrMoreCharacters() {
+        put(1, "Garfield", "Lazy");
+        put(2, "Sylvester", "Tuxedo");
+
+        assertThat(ids(index.search("field", 10))).containsExactly(1L);
+        assertThat(ids(index.search("VEST", 10))).containsExactly(2L);
+        assertThat(index.search("ie", 10)).isEmpty();
+        assertThat(index.search("fieldx", 10)).isEmpty();
+        assertThat(index.search("zzz", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldRequireEveryWordAndRankTheBestMatchFirst() {
+        put(1, "Stormy", "Grey mare");
+        put(2, "Storm", "Grey stallion");
+        put(3, "Grey Storm", "Stallion");
+        put(4, "Thunder", "A storm of a horse, grey");
+        put(5, "Storm", "Brown mare");
+
+        assertThat(ids(index.search("storm grey", 10))).containsExactly(3L, 2L, 1L, 4L);
+        assertThat(ids(index.search("storm grey", 2))).containsExactly(3L, 2L);
+        assertThat(ids(index.search("storm", 10))).containsExactly(2L, 5L, 3L, 1L, 4L);
+    }
+
+    @Test
+    void updateAndRemove_shouldBeVisibleToTheNextSearch() {
+        put(1, "Tom", "Grey tabby");
+        put(2, "Tommy", "Tabby");
+
+        index.update(1L, "Garfield", "Ginger");
+        index.update(42L, "Nobody", "Unknown");
+        index.remove(2L);
+        index.remove(2L);
+
+        assertThat(index.search("tom", 10)).isEmpty();
+        assertThat(index.search("tabby", 10)).isEmpty();
+        List<AnimalSummary> found = index.search("garf", 10);
+        assertThat(found).extracting(AnimalSummary::getName).containsExactly("Garfield");
+        assertThat(found.get(0).getGroup()).isEqualTo("MAMMALS");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void update_shouldListAnAnimalOnceWhenItTakesAWordBack() {
+        for (int i = 1; i <= 4; i++) {
+            put(i, "Cat " + i, "Tabby");
+        }
+
+        index.update(1L, "Cat 1", "Ginger");
+        index.update(1L, "Cat 1", "Tabby");
+        index.update(2L, "Cat 2", "Ginger");
+        index.update(3L, "Cat 3", "Ginger");
+
+        assertThat(ids(index.search("tabby", 10))).containsExactly(1L, 4L);
+        assertThat(ids(index.search("ginger", 10))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void search_shouldLookAtABoundedNumberOfCandidates() {
+        int size = SearchIndex.MAX_CANDIDATES + 10;
+        for (int i = 1; i <= size; i++) {
+            put(i, "Animal " + i, "Description of animal number " + i);
+        }
+        put(size + 1, "Animal", "Another one past the candidates a common word looks at");
+
+        assertThat(ids(index.search("animal", 3))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.search("an", 3))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.search("animal past", 3))).containsExactly(size + 1L);
+        assertThat(ids(index.search("nimal " + size, 3))).containsExactly((long) size);
+    }
+
+    private void put(long id, String name, String description) {
+        index.put(new AnimalSummary(id, name, description, "MAMMALS"));
+    }
+
+    private static List<Long> ids(List<AnimalSummary> animals) {
+        return animals.stream().map(AnimalSummary::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,84 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.domain.Cat;
+import cx.catapult.animals.exception.AnimalNotFoundException;
+import cx.catapult.animals.exception.InvalidRequestException;
+import cx.catapult.animals.repository.AnimalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+
+    @Mock
+    AnimalRepository animalRepository;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    CatsService service;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new CatsService(animalRepository));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(registry));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void shouldTimeSuccessfulCalls() {
+        when(animalRepository.findSummariesByAnimalType("CAT")).thenReturn(Collections.emptyList());
+        when(animalRepository.findCollectionVersion("CAT")).thenReturn(3L);
+
+        service.all();
+        service.getVersion();
+
+        assertThat(count("all", "success")).isEqualTo(1);
+        assertThat(count("getVersion", "success")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagNotFound() {
+        when(animalRepository.findSummaryById(eq("CAT"), anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(AnimalNotFoundException.class, () -> service.get("1"));
+
+        assertThat(count("get", "not_found")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagInvalidRequests() {
+        assertThrows(InvalidRequestException.class, () -> service.page("!", 10));
+
+        assertThat(count("page", "invalid")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagErrors() {
+        when(animalRepository.save(any())).thenThrow(new IllegalStateException("down"));
+
+        assertThrows(IllegalStateException.class, () -> service.create(new Cat("Tom", "Cat")));
+
+        assertThat(count("create", "error")).isEqualTo(1);
+    }
+
+    private long count(String method, String outcome) {
+        return registry.get(ServiceMetricsAspect.METRIC)
+                .tag("type", "cat").tag("method", method).tag("outcome", outcome)
+                .timer().count();
+    }
+}
@@ -0,0 +1,197 @@
+package cx.catapult.animals.service;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.exception.AnimalNotFoundException;
+import cx.catapult.animals.repository.AnimalStore;
+import cx.catapult.animals.repository.entity.AnimalEntity;
+import cx.catapult.animals.repository.memory.InMemoryAnimalStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WriteBehindQueueTest {
+
+    private final AnimalStore store = new InMemoryAnimalStore();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Long> flushed = new CopyOnWriteArrayList<>();
+    private WriteBehindQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+    }
+
+    @Test
+    void create_shouldCompleteWithTheIdOnceTheBatchIsFull() throws Exception {
+        queue = queue(store, 10, 2, Duration.ofHours(1), Duration.ofSeconds(1));
+
+        CompletableFuture<Long> first = queue.create(entity("Tom"));
+        assertThat(first).isNotDone();
+        CompletableFuture<Long> second = queue.create(entity("Felix"));
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(first.get() + 1);
+        assertThat(store.findSummaryById("CAT", first.get()).get().getName()).isEqualTo("Tom");
+        assertThat(flushed).isEmpty();
+        assertThat(meterRegistry.get("animals.write.behind.rows").tag("type", "cat").summary().totalAmount())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("animals.write.behind.flush").tag("type", "cat").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void create_shouldBeWrittenAfterTheFlushInterval() throws Exception {
+        queue = queue(store, 10, 100, Duration.ofMillis(10), Duration.ofSeconds(1));
+
+        Long id = queue.create(entity("Tom")).get(5, TimeUnit.SECONDS);
+
+        assertThat(store.findSummaryById("CAT", id)).isPresent();
+    }
+
+    @Test
+    void update_shouldMergeRepeatedUpdatesOfAnId() {
+        queue = queue(store, 10, 100, Duration.ofHours(1), Duration.ofSeconds(1));
+        Long id = store.save(entity("Tom")).getId();
+
+        CompletableFuture<Void> first = queue.update(id, "Garfield", "Lazy");
+        CompletableFuture<Void> second = queue.update(id, "Felix", "Lucky");
+        assertThat(second).isSameAs(first);
+        assertThat(queue.depth()).isEqualTo(1);
+        assertThat(meterRegistry.get("animals.write.behind.depth").tag("type", "cat").gauge().value()).isEqualTo(1.0);
+        queue.flush();
+
+        assertThat(first).isCompleted();
+        assertThat(store.findSummaryById("CAT", id).get().getName()).isEqualTo("Felix");
+        assertThat(flushed).containsExactly(id);
+        assertThat(meterRegistry.get("animals.write.behind.merged").tag("type", "cat").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void update_shouldFailWhenNoAnimalHasTheId() {
+        queue = queue(store, 10, 100, Duration.ofHours(1), Duration.ofSeconds(1));
+
+        CompletableFuture<Void> update = queue.update(42L, "Garfield", "Lazy");
+        queue.flush();
+
+        ExecutionException e = assertThrows(ExecutionException.class, update::get);
+        assertThat(e.getCause()).isInstanceOf(AnimalNotFoundException.class);
+        assertThat(flushed).isEmpty();
+    }
+
+    @Test
+    void flushOfAnId_shouldOnlyWriteThePendingUpdateOfThatId() {
+        queue = queue(store, 10, 100, Duration.ofHours(1), Duration.ofSeconds(1));
+        Long tom = store.save(entity("Tom")).getId();
+        Long felix = store.save(entity("Felix")).getId();
+
+        CompletableFuture<Void> first = queue.update(tom, "Garfield", "Lazy");
+        CompletableFuture<Void> second = queue.update(felix, "Sylvester", "Hungry");
+        queue.flush(tom);
+        queue.flush(tom + 100);
+
+        assertThat(first).isCompleted();
+        assertThat(second).isNotDone();
+        assertThat(store.findSummaryById("CAT", tom).get().getName()).isEqualTo("Garfield");
+        assertThat(store.findSummaryById("CAT", felix).get().getName()).isEqualTo("Felix");
+        assertThat(flushed).containsExactly(tom);
+        assertThat(queue.depth()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_shouldFailEveryWriteOfABatchThatCouldNotBeWritten() {
+        AnimalStore failing = mock(AnimalStore.class);
+        IllegalStateException error = new IllegalStateException("down");
+        when(failing.insertAll(any())).thenThrow(error);
+        when(failing.updateAll(any())).thenThrow(error);
+        queue = queue(failing, 10, 100, Duration.ofHours(1), Duration.ofSeconds(1));
+
+        CompletableFuture<Long> create = queue.create(entity("Tom"));
+        CompletableFuture<Void> update = queue.update(1L, "Garfield", "Lazy");
+        queue.flush();
+
+        assertThat(assertThrows(ExecutionException.class, create::get).getCause()).isSameAs(error);
+        assertThat(assertThrows(ExecutionException.class, update::get).getCause()).isSameAs(error);
+        assertThat(flushed).isEmpty();
+        assertThat(meterRegistry.get("animals.write.behind.failed").tag("type", "cat").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void enqueue_shouldRejectWritesWhenTheQueueStaysFull() {
+        queue = queue(store, 1, 100, Duration.ofHours(1), Duration.ofMillis(10));
+        queue.create(entity("Tom"));
+
+        assertThrows(RejectedExecutionException.class, () -> queue.create(entity("Felix")));
+        assertThrows(RejectedExecutionException.class, () -> queue.update(1L, "Felix", "Lucky"));
+        assertThat(meterRegistry.get("animals.write.behind.rejected").tag("type", "cat").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void enqueue_shouldWaitForRoomInAFullQueue() throws Exception {
+        queue = queue(store, 1, 100, Duration.ofHours(1), Duration.ofSeconds(30));
+        queue.create(entity("Tom"));
+
+        CompletableFuture<CompletableFuture<Long>> waiting = CompletableFuture.supplyAsync(() -> queue.create(entity("Felix")));
+        while (!waiting.isDone()) {
+            queue.flush();
+            Thread.sleep(1);
+        }
+        queue.flush();
+
+        assertThat(waiting.get().get(5, TimeUnit.SECONDS)).isPositive();
+    }
+
+    @Test
+    void enqueue_shouldRejectAnInterruptedWriterWaitingForRoom() {
+        queue = queue(store, 1, 100, Duration.ofHours(1), Duration.ofSeconds(30));
+        queue.create(entity("Tom"));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(RejectedExecutionException.class, () -> queue.create(entity("Felix")));
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void close_shouldWriteWhatIsQueuedAndRejectLaterWrites() {
+        queue = queue(store, 10, 100, Duration.ofHours(1), Duration.ofSeconds(1));
+        CompletableFuture<Long> create = queue.create(entity("Tom"));
+
+        queue.close();
+
+        assertThat(create).isCompleted();
+        assertThrows(RejectedExecutionException.class, () -> queue.create(entity("Felix")));
+    }
+
+    private WriteBehindQueue queue(AnimalStore store, int capacity, int batchSize, Duration flushInterval,
+                                   Duration enqueueTimeout) {
+        AnimalsProperties.WriteBehind settings = new AnimalsProperties.WriteBehind();
+        settings.setCapacity(capacity);
+        settings.setBatchSize(batchSize);
+        settings.setFlushInterval(flushInterval);
+        settings.setEnqueueTimeout(enqueueTimeout);
+        return new WriteBehindQueue("CAT", settings, store, TransactionOperations.withoutTransaction(),
+                animals -> animals.forEach(animal -> flushed.add(animal.getId())), meterRegistry);
+    }
+
+    private static AnimalEntity entity(String name) {
+        return new AnimalEntity(null, name, "description", "CAT", "MAMMALS", null, null, null);
+    }
+}
@@ -0,0 +1,95 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    public void tryAcquire_shouldRejectAboveLimit() {
+        AdaptiveLimiter limiter = limiter(2, 1, 10);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release(-1, false);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void release_shouldGrowWhileLatencyIsSteadyAndLimitIsUsed() {
+        AdaptiveLimiter limiter = limiter(10, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            saturateAndRelease(limiter, 10 * MILLIS);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    public void release_shouldNotGrowWhenLimitIsNotUsed() {
+        AdaptiveLimiter limiter = limiter(10, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(10 * MILLIS, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void release_shouldShrinkWhenLatencyRisesAndRecoverWhenItDrops() {
+        AdaptiveLimiter limiter = limiter(50, 5, 100);
+        saturateAndRelease(limiter, 10 * MILLIS);
+
+        for (int i = 0; i < 20; i++) {
+            saturateAndRelease(limiter, 100 * MILLIS);
+        }
+        int shrunk = limiter.getLimit();
+        for (int i = 0; i < 100; i++) {
+            saturateAndRelease(limiter, 10 * MILLIS);
+        }
+
+        assertThat(shrunk).isLessThan(10);
+        assertThat(limiter.getLimit()).isGreaterThan(shrunk);
+    }
+
+    @Test
+    public void release_shouldBackOffOnDroppedRequestsDownToMinimum() {
+        AdaptiveLimiter limiter = limiter(10, 3, 100);
+
+        limiter.tryAcquire();
+        limiter.release(10 * MILLIS, true);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(10 * MILLIS, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    private static void saturateAndRelease(AdaptiveLimiter limiter, long rtt) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(rtt, false);
+        }
+    }
+
+    static AdaptiveLimiter limiter(int initial, int min, int max) {
+        AnimalsProperties.Limiter settings = new AnimalsProperties.Limiter();
+        return new AdaptiveLimiter(settings, new AnimalsProperties.Limit(initial, min, max));
+    }
+}
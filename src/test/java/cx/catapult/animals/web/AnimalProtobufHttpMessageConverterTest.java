@@ -0,0 +1,74 @@
+package cx.catapult.animals.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import cx.catapult.animals.domain.AnimalPage;
+import cx.catapult.animals.domain.Group;
+import cx.catapult.animals.domain.Horse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnimalProtobufHttpMessageConverterTest {
+
+    private static final MediaType PROTOBUF = MediaType.parseMediaType(CollectionMediaTypes.PROTOBUF_VALUE);
+
+    @Test
+    void canWriteShouldOnlyTakeAnimalCollectionsAndPages() throws IOException {
+        AnimalProtobufHttpMessageConverter converter = new AnimalProtobufHttpMessageConverter();
+        Type horses = new ParameterizedTypeReference<List<Horse>>() { }.getType();
+        Type ids = new ParameterizedTypeReference<List<String>>() { }.getType();
+
+        assertThat(converter.canWrite(horses, List.class, PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(AnimalPage.class, AnimalPage.class, PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(ids, List.class, PROTOBUF)).isFalse();
+        assertThat(converter.canWrite(null, ArrayList.class, PROTOBUF)).isFalse();
+        assertThat(converter.canWrite(horses, List.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(Horse.class, PROTOBUF)).isFalse();
+    }
+
+    @Test
+    void writeShouldEncodeCollectionsAsAListWithoutCursor() throws IOException {
+        AnimalProtobufHttpMessageConverter converter = new AnimalProtobufHttpMessageConverter();
+        Set<Horse> horses = new LinkedHashSet<>(Arrays.asList(
+                new Horse("1", "Spirit", "Stallion", Group.MAMMALS), new Horse("2", "Kelpie", "Water horse", Group.AMPHIBIAN)));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(horses, new ParameterizedTypeReference<Set<Horse>>() { }.getType(), PROTOBUF, output);
+
+        AnimalPage<Horse> decoded = reader().readValue(output.getBodyAsBytes());
+        assertThat(decoded.getItems()).containsExactlyElementsOf(horses);
+        assertThat(decoded.getNext()).isNull();
+    }
+
+    @Test
+    void readShouldNotBeSupported() throws IOException {
+        AnimalProtobufHttpMessageConverter converter = new AnimalProtobufHttpMessageConverter();
+        MockHttpInputMessage input = new MockHttpInputMessage(new byte[0]);
+
+        assertThat(converter.canRead(List.class, PROTOBUF)).isFalse();
+        assertThat(converter.canRead(Horse.class, null, PROTOBUF)).isFalse();
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Horse.class, null, input));
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Object.class, input));
+    }
+
+    static ObjectReader reader() throws IOException {
+        return new ProtobufMapper().readerFor(new TypeReference<AnimalPage<Horse>>() { })
+                .with(AnimalProtobufHttpMessageConverter.schema());
+    }
+}
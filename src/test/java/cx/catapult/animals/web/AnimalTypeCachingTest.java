@@ -0,0 +1,87 @@
+package cx.catapult.animals.web;
+
+import com.jayway.jsonpath.JsonPath;
+import cx.catapult.animals.repository.AnimalStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static cx.catapult.animals.TestUtils.perform;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Asks the horse endpoints for the ID of a cat with the per-type and response caches enabled, and checks that the cat
+ * is neither answered nor cached as a horse, so later horse reads do not depend on what was asked before.
+ */
+@SpringBootTest(properties = {
+        "animals.cache.horse.enabled=true",
+        "animals.cache.cat.enabled=true",
+        "animals.response-cache.enabled=true"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+@Execution(ExecutionMode.SAME_THREAD)
+class AnimalTypeCachingTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private AnimalStore animalStore;
+
+    private String id;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String created = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats")
+                .content("{ \"name\": \"Tom\", \"description\": \"Grey tabby\" }")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        id = JsonPath.read(created, "$.id");
+    }
+
+    @AfterEach
+    void tearDown() {
+        animalStore.deleteAnimalById("CAT", Long.parseLong(id));
+    }
+
+    @Test
+    void cachedSingleGetsShouldNotAnswerAnotherType() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/" + id)).andExpect(status().isOk());
+        for (int i = 0; i < 2; i++) {
+            perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id)).andExpect(status().isNotFound());
+        }
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?ids=" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found").value(false));
+    }
+
+    @Test
+    void cachedMultiGetsShouldNotAnswerAnotherType() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?ids=" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].found").value(false));
+        }
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id)).andExpect(status().isNotFound());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", not(hasItem(id))));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats?ids=" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].animal.name").value("Tom"));
+    }
+}
@@ -1,75 +1,252 @@
 package cx.catapult.animals.web;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import cx.catapult.animals.domain.AnimalLookup;
+import cx.catapult.animals.domain.AnimalPage;
 import cx.catapult.animals.domain.Cat;
-import cx.catapult.animals.repository.AnimalRepository;
+import cx.catapult.animals.repository.AnimalStore;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.List;
+
 import static cx.catapult.animals.TestUtils.convertStringToObject;
+import static cx.catapult.animals.TestUtils.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+// Collection ETag assertions need to see no other writes of the same animal type between two requests.
+@Execution(ExecutionMode.SAME_THREAD)
 class CatsControllerTest {
 
     @Autowired
     private MockMvc mvc;
     @Autowired
-    private AnimalRepository animalRepository;
+    private AnimalStore animalStore;
 
     private Cat cat = new Cat("Tom", "Bob cat");
     private String json = "{ \"name\": \"Tom\", \"description\": \"Bob cat\" }";
 
     @Test
     void create() throws Exception {
-        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isCreated()).andReturn();
 
         Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
 
-        animalRepository.deleteById(Long.parseLong(cat.getId()));
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void createAll() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats/batch").content("[" + json + "]").contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn();
+        String[] ids = (String[])convertStringToObject(result.getResponse().getContentAsString(), String[].class);
+
+        animalStore.deleteAnimalById("CAT", Long.parseLong(ids[0]));
     }
 
     @Test
     void all() throws Exception {
-        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isCreated()).andReturn();
         Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
 
-        mvc.perform(MockMvcRequestBuilders.get("/api/1/cats").accept(MediaType.APPLICATION_JSON))
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats?group=MAMMALS&sort=name").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].group").value("MAMMALS"));
+
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void page() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated()).andReturn();
+        Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats?limit=1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats?limit=1&sort=name").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void all_shouldNegotiateBinaryFormats() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated()).andReturn();
+        Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
+
+        byte[] cbor = perform(mvc, MockMvcRequestBuilders.get("/api/1/cats").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(cbor, Cat[].class)).contains(cat);
+
+        byte[] smile = perform(mvc, MockMvcRequestBuilders.get("/api/1/cats").accept(CollectionMediaTypes.SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(smile, Cat[].class)).contains(cat);
+
+        ObjectReader protobuf = new ProtobufMapper().readerFor(new TypeReference<AnimalPage<Cat>>() { })
+                .with(AnimalProtobufHttpMessageConverter.schema());
+        byte[] list = perform(mvc, MockMvcRequestBuilders.get("/api/1/cats").accept(CollectionMediaTypes.PROTOBUF_VALUE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(protobuf.<AnimalPage<Cat>>readValue(list).getItems()).contains(cat);
+        byte[] page = perform(mvc, MockMvcRequestBuilders.get("/api/1/cats?limit=1").accept(CollectionMediaTypes.PROTOBUF_VALUE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(protobuf.<AnimalPage<Cat>>readValue(page).getItems()).hasSize(1);
+
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void getAll() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated()).andReturn();
+        Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
+
+        byte[] cbor = perform(mvc, MockMvcRequestBuilders.get("/api/1/cats?ids=abc," + cat.getId()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        List<AnimalLookup<Cat>> lookups = new ObjectMapper(new CBORFactory()).readValue(cbor, new TypeReference<List<AnimalLookup<Cat>>>() { });
+        assertThat(lookups.get(0).isFound()).isFalse();
+        assertThat(lookups.get(1).getAnimal().getId()).isEqualTo(cat.getId());
+
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void getAll_shouldRejectALimit() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats?ids=1&limit=5").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Ids cannot be combined with limit"));
+    }
+
+    @Test
+    void export() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated()).andReturn();
+        Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"));
 
-        animalRepository.deleteById(Long.parseLong(cat.getId()));
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
     }
 
     @Test
     void get() throws Exception {
-        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn();
 
         Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
 
-        mvc.perform(MockMvcRequestBuilders.get("/api/1/cats/"+cat.getId()).accept(MediaType.APPLICATION_JSON))
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/"+cat.getId()).accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        animalRepository.deleteById(Long.parseLong(cat.getId()));
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void get_shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+        Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
+
+        String eTag = perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/"+cat.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/"+cat.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void all_shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        String eTag = perform(mvc, MockMvcRequestBuilders.get("/api/1/cats").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats?limit=10").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
     }
 
     @Test
     public void update() throws Exception {
-        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn();
         Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
 
-        mvc.perform(MockMvcRequestBuilders.put("/api/1/cats/").content(result.getResponse().getContentAsString()).contentType(MediaType.APPLICATION_JSON_VALUE))
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/cats/").content(result.getResponse().getContentAsString()).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isAccepted());
 
-        animalRepository.deleteById(Long.parseLong(cat.getId()));
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void patch() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+        Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
+
+        perform(mvc, MockMvcRequestBuilders.patch("/api/1/cats/"+cat.getId()).content("{ \"name\": \"Felix\" }").contentType(MergePatches.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.name").value("Felix"))
+                .andExpect(jsonPath("$.description").value("Bob cat"));
+
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void search() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats")
+                .content("{ \"name\": \"Mistoffelees\", \"description\": \"Magical\" }")
+                .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+        Cat cat = (Cat)convertStringToObject(result.getResponse().getContentAsString(), Cat.class);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/search?q=toffel magic"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(cat.getId()));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/search?q=mistoffelees&limit=0"))
+                .andExpect(status().isBadRequest());
+
+        animalStore.deleteAnimalById("CAT", Long.parseLong(cat.getId()));
     }
-}
\ No newline at end of file
+}
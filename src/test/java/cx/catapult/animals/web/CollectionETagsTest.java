@@ -0,0 +1,39 @@
+package cx.catapult.animals.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CollectionETagsTest {
+
+    private static final List<MediaType> PRODUCIBLE = Arrays.asList(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR, MediaType.valueOf(CollectionMediaTypes.SMILE_VALUE));
+
+    @Test
+    void ofShouldNameTheMediaTypeSpringWouldWrite() {
+        assertThat(CollectionETags.of("1-2-3", accept("*/*"), PRODUCIBLE)).isEqualTo("1-2-3;json");
+        assertThat(CollectionETags.of("1-2-3", accept("application/cbor"), PRODUCIBLE)).isEqualTo("1-2-3;cbor");
+        assertThat(CollectionETags.of("1-2-3", accept("application/json;q=0.5, application/*"), PRODUCIBLE))
+                .isEqualTo("1-2-3;json");
+        assertThat(CollectionETags.of("1-2-3", accept("application/json;q=0.5, application/cbor"), PRODUCIBLE))
+                .isEqualTo("1-2-3;cbor");
+    }
+
+    @Test
+    void ofShouldKeepTheVersionWhenNothingIsNegotiated() {
+        assertThat(CollectionETags.of("1-2-3", accept("*/*"), null)).isEqualTo("1-2-3");
+        assertThat(CollectionETags.of("1-2-3", accept("text/plain"), PRODUCIBLE)).isEqualTo("1-2-3");
+        assertThat(CollectionETags.of("1-2-3", Collections.emptyList(), PRODUCIBLE)).isEqualTo("1-2-3");
+    }
+
+    private static List<MediaType> accept(String header) {
+        List<MediaType> acceptable = MediaType.parseMediaTypes(header);
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        return acceptable;
+    }
+}
@@ -0,0 +1,144 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.exception.ApiExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.registerSingleton("apiExceptionHandler", ApiExceptionHandler.class);
+        context.refresh();
+        ExceptionHandlerExceptionResolver resolver = new ExceptionHandlerExceptionResolver();
+        resolver.setApplicationContext(context);
+        resolver.setMessageConverters(Collections.singletonList(new MappingJackson2HttpMessageConverter()));
+        resolver.afterPropertiesSet();
+
+        AnimalsProperties properties = new AnimalsProperties();
+        properties.getLimiter().setRead(new AnimalsProperties.Limit(1, 1, 1));
+        properties.getLimiter().setWrite(new AnimalsProperties.Limit(2, 1, 2));
+        filter = new ConcurrencyLimitFilter(properties, registry, resolver);
+    }
+
+    @Test
+    public void shouldRejectReadsAboveTheLimitWithApiError() throws Exception {
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/api/1/cats"), new MockHttpServletResponse(), (req, res) -> {
+            assertThat(gauge("in.flight", "read")).isEqualTo(1);
+            filter.doFilter(request("GET", "/api/1/horses"), nested, failingChain());
+        });
+
+        assertThat(nested.getStatus()).isEqualTo(503);
+        assertThat(nested.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(nested.getContentAsString()).contains("Too many requests in flight");
+        assertThat(registry.get("animals.limiter.rejected").tag("kind", "read").counter().count()).isEqualTo(1);
+        assertThat(gauge("in.flight", "read")).isZero();
+    }
+
+    @Test
+    public void shouldLimitWritesSeparately() throws Exception {
+        MockHttpServletResponse write = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/api/1/cats"), new MockHttpServletResponse(),
+                (req, res) -> filter.doFilter(request("POST", "/api/1/cats"), write, (r, s) -> { }));
+
+        assertThat(write.getStatus()).isEqualTo(200);
+        assertThat(gauge("limit", "write")).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldIgnoreRequestsOutsideTheApi() throws Exception {
+        filter.doFilter(request("GET", "/api/1/cats"), new MockHttpServletResponse(), (req, res) -> {
+            MockHttpServletResponse health = new MockHttpServletResponse();
+            filter.doFilter(request("GET", "/actuator/health"), health, (r, s) -> { });
+            assertThat(health.getStatus()).isEqualTo(200);
+        });
+    }
+
+    @Test
+    public void shouldHoldThePermitUntilTheAsyncDispatch() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/1/cats");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync(req, res));
+        assertThat(gauge("in.flight", "read")).isEqualTo(1);
+
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+        assertThat(gauge("in.flight", "read")).isZero();
+
+        request.getAsyncContext().complete();
+        assertThat(gauge("in.flight", "read")).isZero();
+    }
+
+    @Test
+    public void shouldReleaseThePermitWhenAsyncCompletesWithoutDispatch() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/1/horses/export");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync(req, res));
+        request.getAsyncContext().complete();
+
+        assertThat(gauge("in.flight", "read")).isZero();
+    }
+
+    @Test
+    public void permit_shouldBackOffOnTimeoutAndReleaseOnce() throws Exception {
+        AdaptiveLimiter limiter = AdaptiveLimiterTest.limiter(10, 1, 10);
+        limiter.tryAcquire();
+        ConcurrencyLimitFilter.Permit permit = new ConcurrencyLimitFilter.Permit(limiter, true);
+
+        permit.onStartAsync(null);
+        permit.onTimeout(null);
+        permit.onError(null);
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    public void permit_shouldReleaseOnError() throws Exception {
+        AdaptiveLimiter limiter = AdaptiveLimiterTest.limiter(10, 1, 10);
+        limiter.tryAcquire();
+
+        new ConcurrencyLimitFilter.Permit(limiter, true).onError(null);
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    private double gauge(String name, String kind) {
+        return registry.get("animals.limiter." + name).tag("kind", kind).gauge().value();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+
+    private static FilterChain failingChain() {
+        return (req, res) -> {
+            throw new AssertionError("Request should have been rejected");
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package cx.catapult.animals.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cx.catapult.animals.config.AnimalsProperties;
+import cx.catapult.animals.domain.EncodedAnimal;
+import cx.catapult.animals.domain.Horse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.io.UncheckedIOException;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EncodedResponsesTest {
+
+    @Test
+    void acceptsGzipShouldHonourQualityZero() {
+        assertThat(EncodedResponses.acceptsGzip(null)).isFalse();
+        assertThat(EncodedResponses.acceptsGzip("deflate, br")).isFalse();
+        assertThat(EncodedResponses.acceptsGzip("deflate, GZIP")).isTrue();
+        assertThat(EncodedResponses.acceptsGzip("gzip;q=0.5")).isTrue();
+        assertThat(EncodedResponses.acceptsGzip("gzip; q=0")).isFalse();
+        assertThat(EncodedResponses.acceptsGzip("br, gzip;q=0.00")).isFalse();
+    }
+
+    @Test
+    void okShouldAnswerNotModifiedForTheETagOfEitherCoding() {
+        AnimalsProperties properties = new AnimalsProperties();
+        properties.getResponseCache().setEnabled(true);
+        properties.getResponseCache().setGzip(true);
+        Horse horse = new Horse("1", "Spirit", String.join(" ", Collections.nCopies(20, "Stallion")), null);
+        horse.setVersion(3L);
+        EncodedResponses responses = new EncodedResponses(new ObjectMapper(), properties);
+        EncodedAnimal encoded = responses.encode(horse);
+
+        assertThat(responses.ok(encoded, "gzip", null).getHeaders().getETag()).isEqualTo("\"1-3;gzip\"");
+        assertThat(responses.ok(encoded, null, "\"1-2\", W/\"1-3;gzip\"").getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(responses.ok(encoded, "gzip", "\"1-3\"").getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(responses.ok(encoded, "gzip", "*").getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(responses.ok(encoded, null, "\"1-2\"").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void encodeShouldThrowUncheckedExceptionWhenSerializationFails() {
+        ObjectMapper failing = new ObjectMapper() {
+            @Override
+            public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+                throw new JsonProcessingException("broken") { };
+            }
+        };
+        EncodedResponses responses = new EncodedResponses(failing, new AnimalsProperties());
+
+        assertThrows(UncheckedIOException.class, () -> responses.encode(new Horse("1", "Spirit", "Stallion", null)));
+    }
+}
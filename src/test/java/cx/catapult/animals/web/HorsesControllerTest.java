@@ -1,101 +1,514 @@
 package cx.catapult.animals.web;
 
+import com.jayway.jsonpath.JsonPath;
 import cx.catapult.animals.domain.Horse;
-import cx.catapult.animals.repository.AnimalRepository;
+import cx.catapult.animals.repository.AnimalStore;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 import static cx.catapult.animals.TestUtils.convertStringToObject;
+import static cx.catapult.animals.TestUtils.perform;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+// Collection ETag assertions need to see no other writes of the same animal type between two requests.
+@Execution(ExecutionMode.SAME_THREAD)
 class HorsesControllerTest {
 
     @Autowired
     private MockMvc mvc;
     @Autowired
-    private AnimalRepository animalRepository;
+    private AnimalStore animalStore;
 
     private String json = "{ \"name\": \"Spirit\", \"description\": \"Stallion\" }";
 
     @Test
     void create() throws Exception {
-        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isCreated()).andReturn();
         Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
 
-        animalRepository.deleteById(Long.parseLong(horse.getId()));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void createAll() throws Exception {
+        String batch = "[" + json + ", { \"name\": \"Rain\", \"description\": \"Mare\" }]";
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses/batch").content(batch).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andReturn();
+        String[] ids = (String[])convertStringToObject(result.getResponse().getContentAsString(), String[].class);
+
+        assertThat(Long.parseLong(ids[1])).isGreaterThan(Long.parseLong(ids[0]));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + ids[1]).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Rain"));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(ids[0]));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(ids[1]));
+    }
+
+    @Test
+    void createAll_shouldReturnBadRequestWhenAnyRecordIsInvalid() throws Exception {
+        String batch = "[" + json + ", { \"name\": \"\", \"description\": \"Mare\" }]";
+        perform(mvc, MockMvcRequestBuilders.post("/api/1/horses/batch").content(batch).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Name cannot be null or empty"));
+        perform(mvc, MockMvcRequestBuilders.post("/api/1/horses/batch").content("[]").contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     public void get() throws Exception {
-        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/"+horse.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    public void get_shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+
+        String eTag = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/"+horse.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"" + horse.getId() + "-");
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/"+horse.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses/").content(result.getResponse().getContentAsString()).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isAccepted());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/"+horse.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void getAll_shouldAnswerEveryIdInRequestOrder() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?ids=" + horse.getId() + ",0," + horse.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(horse.getId()))
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].animal.name").value("Spirit"))
+                .andExpect(jsonPath("$[1].id").value("0"))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[2].animal.id").value(horse.getId()));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void getAll_shouldRejectALimit() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?ids=1,2&limit=5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Ids cannot be combined with limit"));
+    }
+
+    @Test
+    void byIdEndpoints_shouldNotFindAnimalsOfAnotherType() throws Exception {
+        String cat = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(cat, "$.id");
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id))
+                .andExpect(status().isNotFound());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?ids=" + id).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found").value(false));
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses/").content(cat).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isNotFound());
+        perform(mvc, MockMvcRequestBuilders.patch("/api/1/horses/" + id).content("{ \"name\": \"Storm\" }")
+                .contentType(MergePatches.MEDIA_TYPE))
+                .andExpect(status().isNotFound());
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/" + id))
+                .andExpect(status().isNotFound());
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Spirit"));
+        animalStore.deleteAnimalById("CAT", Long.parseLong(id));
+    }
+
+    @Test
+    void getAll_shouldReturnBadRequestWhenTooManyIdsAreRequested() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i <= 101; i++) {
+            ids.add(String.valueOf(i));
+        }
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?ids=" + String.join(",", ids)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Between 1 and 100 IDs can be requested at once"));
+    }
+
+    @Test
+    public void all_shouldReturnNotModifiedUntilCollectionChanges() throws Exception {
+        String eTag = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=10").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn();
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
 
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void all_shouldChangeETagWhenAnotherInstanceWrites() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
         Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+        String eTag = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Written straight to the store, as another instance of the service would.
+        animalStore.updateNameAndDescription("HORSE", Long.parseLong(horse.getId()), "Storm", "Grey", LocalDateTime.now());
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
 
-        mvc.perform(MockMvcRequestBuilders.get("/api/1/horses/"+horse.getId()).accept(MediaType.APPLICATION_JSON))
+    @Test
+    void all_shouldGiveEachMediaTypeItsOwnETag() throws Exception {
+        List<String> eTags = new ArrayList<>();
+        for (String mediaType : asList(MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                CollectionMediaTypes.SMILE_VALUE, CollectionMediaTypes.PROTOBUF_VALUE)) {
+            eTags.add(perform(mvc, MockMvcRequestBuilders.get("/api/1/horses").accept(mediaType))
+                    .andExpect(status().isOk())
+                    .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        }
+
+        assertThat(eTags).doesNotHaveDuplicates();
+        assertThat(eTags.get(1)).endsWith(";cbor\"");
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses").accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, eTags.get(0)))
                 .andExpect(status().isOk());
-        animalRepository.deleteById(Long.parseLong(horse.getId()));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=10").accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, eTags.get(1)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void get_shouldVaryByAccept() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + horse.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
     }
 
     @Test
     public void all() throws Exception {
-        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn();
 
         Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
 
-        mvc.perform(MockMvcRequestBuilders.get("/api/1/horses").accept(MediaType.APPLICATION_JSON))
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
-        animalRepository.deleteById(Long.parseLong(horse.getId()));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    public void page() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    public void page_shouldReturnBadRequestWhenLimitIsOutOfRange() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=0").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=1001").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void page_shouldReturnBadRequestWhenCursorIsInvalid() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=10&after=!").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    public void page_shouldFilterByGroupAndSortByName() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (String name : asList("Zephyr", "Ash", "Maple")) {
+            String reptile = "{ \"name\": \"" + name + "\", \"description\": \"Reptile\", \"group\": \"REPTILES\" }";
+            MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(reptile).contentType(MediaType.APPLICATION_JSON_VALUE))
+                    .andExpect(status().isCreated()).andReturn();
+            ids.add(JsonPath.read(result.getResponse().getContentAsString(), "$.id"));
+        }
+
+        MvcResult all = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?group=reptiles&sort=name").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()).andReturn();
+        List<String> names = JsonPath.read(all.getResponse().getContentAsString(), "$[?(@.description == 'Reptile')].name");
+        assertThat(names).containsExactly("Ash", "Maple", "Zephyr");
+
+        names = new ArrayList<>();
+        String next = "";
+        do {
+            MvcResult page = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=1&group=REPTILES&sort=name&after=" + next)
+                    .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[0].group").value("REPTILES"))
+                    .andReturn();
+            String content = page.getResponse().getContentAsString();
+            names.addAll(JsonPath.read(content, "$.items[?(@.description == 'Reptile')].name"));
+            next = JsonPath.read(content, "$.next");
+        } while (next != null);
+        assertThat(names).containsExactly("Ash", "Maple", "Zephyr");
+
+        ids.forEach(id -> animalStore.deleteAnimalById("HORSE", Long.parseLong(id)));
+    }
+
+    @Test
+    public void page_shouldReturnBadRequestWhenGroupOrSortIsInvalid() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?group=DRAGON").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid group"));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=10&sort=age").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Sort must be created or name"));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=10&sort=name&after=YWJj").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    public void export() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+
+        String body = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/export").accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).endsWith("\n");
+        assertThat(body).contains("\"id\":\"" + horse.getId() + "\"");
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
     }
 
     @Test
     public void delete() throws Exception {
-        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn();
 
         Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
 
-        mvc.perform(MockMvcRequestBuilders.delete("/api/1/horses/"+horse.getId()).accept(MediaType.APPLICATION_JSON))
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/"+horse.getId()).accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
     }
 
     @Test
     public void delete_shouldReturnNotfoundWhenIdIsInvalid() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/api/1/horses/1").accept(MediaType.APPLICATION_JSON))
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/1").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
 
     @Test
     public void update() throws Exception {
-        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn();
         Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
 
-        mvc.perform(MockMvcRequestBuilders.put("/api/1/horses/").content(result.getResponse().getContentAsString()).contentType(MediaType.APPLICATION_JSON_VALUE))
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses/").content(result.getResponse().getContentAsString()).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isAccepted());
-        animalRepository.deleteById(Long.parseLong(horse.getId()));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void update_shouldOnlyApplyWhileIfMatchNamesTheCurrentETag() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+        String eTag = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/"+horse.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String storm = "{ \"id\": \"" + horse.getId() + "\", \"name\": \"Storm\", \"description\": \"Stallion\" }";
+        String rain = "{ \"id\": \"" + horse.getId() + "\", \"name\": \"Rain\", \"description\": \"Stallion\" }";
+
+        String updated = perform(mvc, MockMvcRequestBuilders.put("/api/1/horses").header(HttpHeaders.IF_MATCH, eTag)
+                .content(storm).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(updated).isNotEqualTo(eTag);
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses").header(HttpHeaders.IF_MATCH, eTag)
+                .content(rain).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Record has been changed since it was read"));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/"+horse.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, updated))
+                .andExpect(jsonPath("$.name").value("Storm"));
+
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses").header(HttpHeaders.IF_MATCH, "*")
+                .content(rain).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isAccepted())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses").header(HttpHeaders.IF_MATCH, updated)
+                .content(storm).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isPreconditionFailed());
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void update_shouldRejectIfMatchHeadersThatCanNeverMatch() throws Exception {
+        String spirit = "{ \"id\": \"1\", \"name\": \"Spirit\", \"description\": \"Stallion\" }";
+        for (String ifMatch : asList("W/\"1-0\"", "\"2-0\"", "\"1-x\"", "\"1-0")) {
+            perform(mvc, MockMvcRequestBuilders.put("/api/1/horses").header(HttpHeaders.IF_MATCH, ifMatch)
+                    .content(spirit).contentType(MediaType.APPLICATION_JSON_VALUE))
+                    .andExpect(status().isPreconditionFailed());
+        }
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses").header(HttpHeaders.IF_MATCH, "\"1-0\", \"1-1\"")
+                .content(spirit).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("If-Match must name a single ETag"));
+    }
+
+    @Test
+    void patch_shouldOnlyWriteWhatChanged() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+        String eTag = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/"+horse.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(mvc, MockMvcRequestBuilders.patch("/api/1/horses/"+horse.getId())
+                .content("{ \"name\": \"Spirit\" }").contentType(MergePatches.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        String patched = perform(mvc, MockMvcRequestBuilders.patch("/api/1/horses/"+horse.getId()).header(HttpHeaders.IF_MATCH, eTag)
+                .content("{ \"description\": \"Grey stallion\" }").contentType(MergePatches.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Spirit"))
+                .andExpect(jsonPath("$.description").value("Grey stallion"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(patched).isNotEqualTo(eTag);
+        perform(mvc, MockMvcRequestBuilders.patch("/api/1/horses/"+horse.getId()).header(HttpHeaders.IF_MATCH, eTag)
+                .content("{ \"name\": \"Storm\" }").contentType(MergePatches.MEDIA_TYPE))
+                .andExpect(status().isPreconditionFailed());
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/"+horse.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, patched))
+                .andExpect(jsonPath("$.name").value("Spirit"))
+                .andExpect(jsonPath("$.description").value("Grey stallion"));
+        animalStore.deleteAnimalById("HORSE", Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void patch_shouldRejectPatchesThatCannotApply() throws Exception {
+        for (String patch : asList("[]", "{ \"group\": \"BIRD\" }", "{ \"name\": null }", "{ \"description\": \" \" }")) {
+            perform(mvc, MockMvcRequestBuilders.patch("/api/1/horses/1").content(patch).contentType(MergePatches.MEDIA_TYPE))
+                    .andExpect(status().isBadRequest());
+        }
+        perform(mvc, MockMvcRequestBuilders.patch("/api/1/horses/0").content("{}").contentType(MergePatches.MEDIA_TYPE))
+                .andExpect(status().isNotFound());
+        perform(mvc, MockMvcRequestBuilders.patch("/api/1/horses/1").content("{}").contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isUnsupportedMediaType());
     }
 
     @Test
     public void update_shouldReturnNotfoundWhenIdIsInvalid() throws Exception {
         json = "{ \"id\": \"1\", \"name\": \"Spirit\", \"description\": \"Stallion\" }";
-        mvc.perform(MockMvcRequestBuilders.put("/api/1/horses/").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses/").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isNotFound());
     }
 
     @Test
     public void update_shouldReturnNotfoundWhenIdIsNull() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.put("/api/1/horses/").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses/").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void search_shouldFollowCreatesUpdatesAndDeletes() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses")
+                .content("{ \"name\": \"Zanzibar\", \"description\": \"Searchable stallion\" }")
+                .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andReturn();
+        Horse horse = (Horse)convertStringToObject(result.getResponse().getContentAsString(), Horse.class);
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/search?q=zanz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(horse.getId()));
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses/")
+                .content("{ \"id\": \"" + horse.getId() + "\", \"name\": \"Quixote\", \"description\": \"Searchable stallion\" }")
+                .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isAccepted());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/search?q=zanz"))
+                .andExpect(jsonPath("$.length()").value(0));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/search?q=uixo&limit=1"))
+                .andExpect(jsonPath("$[0].name").value("Quixote"));
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/" + horse.getId()));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/search?q=quixote"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void search_shouldReturnBadRequestWhenQueryOrLimitIsInvalid() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Query cannot be blank"));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/search?q=spirit&limit=51"))
+                .andExpect(status().isBadRequest());
+    }
+}
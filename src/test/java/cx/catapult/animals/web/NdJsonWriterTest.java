@@ -0,0 +1,50 @@
+package cx.catapult.animals.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cx.catapult.animals.domain.Horse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NdJsonWriterTest {
+
+    @Test
+    void acceptShouldWriteOneRecordPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdJsonWriter writer = new NdJsonWriter(new ObjectMapper(), out);
+
+        writer.accept(new Horse("1", "Spirit", "Stallion", null));
+        writer.accept(new Horse("2", "Rain", "Mare", null));
+        writer.flush();
+
+        String[] lines = out.toString("UTF-8").split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").contains("\"id\":\"1\"");
+        assertThat(lines[1]).startsWith("{").contains("\"id\":\"2\"");
+    }
+
+    @Test
+    void acceptShouldThrowUncheckedExceptionWhenOutputFails() throws IOException {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("closed");
+            }
+        };
+        NdJsonWriter writer = new NdJsonWriter(new ObjectMapper(), failing);
+        Horse horse = new Horse("1", "Spirit", "Stallion", null);
+
+        // Fill the generator buffer so the write has to reach the failing stream.
+        assertThrows(UncheckedIOException.class, () -> {
+            for (int i = 0; i < 10_000; i++) {
+                writer.accept(horse);
+            }
+        });
+    }
+}
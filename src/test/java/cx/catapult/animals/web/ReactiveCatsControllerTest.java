@@ -0,0 +1,99 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.domain.Cat;
+import cx.catapult.animals.repository.AnimalRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class ReactiveCatsControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    private String json = "{ \"name\": \"Tom\", \"description\": \"Bob cat\" }";
+
+    @Test
+    void createAndGet() {
+        Cat cat = client.post().uri("/api/1/cats").contentType(MediaType.APPLICATION_JSON).bodyValue(json)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Cat.class).returnResult().getResponseBody();
+
+        client.get().uri("/api/1/cats/" + cat.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo("Tom");
+        client.get().uri("/api/1/cats?limit=10").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items").isArray();
+        client.get().uri("/api/1/cats").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[?(@.id == '" + cat.getId() + "')].name").isEqualTo("Tom");
+        animalRepository.deleteById(Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void createAllAndUpdate() {
+        String[] ids = client.post().uri("/api/1/cats/batch").contentType(MediaType.APPLICATION_JSON).bodyValue("[" + json + "]")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String[].class).returnResult().getResponseBody();
+        String updated = "{ \"id\": \"" + ids[0] + "\", \"name\": \"Felix\", \"description\": \"Bob cat\" }";
+
+        client.put().uri("/api/1/cats").contentType(MediaType.APPLICATION_JSON).bodyValue(updated).exchange()
+                .expectStatus().isAccepted();
+        String body = client.get().uri("/api/1/cats/export").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertThat(body).contains("\"name\":\"Felix\"");
+        client.get().uri("/api/1/cats/search?q=felix bob").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[?(@.id == '" + ids[0] + "')].name").isEqualTo("Felix");
+        animalRepository.deleteById(Long.parseLong(ids[0]));
+    }
+
+    @Test
+    void patch() {
+        Cat cat = client.post().uri("/api/1/cats").contentType(MediaType.APPLICATION_JSON).bodyValue(json)
+                .exchange()
+                .expectBody(Cat.class).returnResult().getResponseBody();
+
+        client.patch().uri("/api/1/cats/" + cat.getId()).contentType(MediaType.valueOf(MergePatches.MEDIA_TYPE))
+                .bodyValue("{ \"name\": \"Felix\" }").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo("Felix").jsonPath("$.description").isEqualTo("Bob cat");
+        animalRepository.deleteById(Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void getAll() {
+        Cat cat = client.post().uri("/api/1/cats").contentType(MediaType.APPLICATION_JSON).bodyValue(json)
+                .exchange()
+                .expectBody(Cat.class).returnResult().getResponseBody();
+
+        client.get().uri("/api/1/cats?ids=" + cat.getId() + ",0").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].animal.name").isEqualTo("Tom")
+                .jsonPath("$[1].found").isEqualTo(false);
+        animalRepository.deleteById(Long.parseLong(cat.getId()));
+    }
+
+    @Test
+    void getAll_shouldRejectALimit() {
+        client.get().uri("/api/1/cats?ids=1&limit=5").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Ids cannot be combined with limit");
+    }
+}
@@ -0,0 +1,333 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.domain.AnimalPage;
+import cx.catapult.animals.domain.Horse;
+import cx.catapult.animals.repository.AnimalRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+// Collection ETag assertions need to see no other writes of the same animal type between two requests.
+@Execution(ExecutionMode.SAME_THREAD)
+class ReactiveHorsesControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    private String json = "{ \"name\": \"Spirit\", \"description\": \"Stallion\" }";
+
+    @Test
+    void create() {
+        Horse horse = create(json);
+
+        assertThat(horse.getName()).isEqualTo("Spirit");
+        animalRepository.deleteById(Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void create_shouldReturnBadRequestWhenNameIsMissing() {
+        client.post().uri("/api/1/horses").contentType(MediaType.APPLICATION_JSON).bodyValue("{ \"description\": \"Stallion\" }")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Name cannot be null or empty");
+    }
+
+    @Test
+    void createAll() {
+        String batch = "[" + json + ", { \"name\": \"Rain\", \"description\": \"Mare\" }]";
+        List<String> ids = client.post().uri("/api/1/horses/batch").contentType(MediaType.APPLICATION_JSON).bodyValue(batch)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(new ParameterizedTypeReference<List<String>>() { })
+                .returnResult().getResponseBody();
+
+        assertThat(ids).hasSize(2);
+        assertThat(Long.parseLong(ids.get(1))).isGreaterThan(Long.parseLong(ids.get(0)));
+        client.get().uri("/api/1/horses/" + ids.get(1)).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo("Rain");
+        ids.forEach(id -> animalRepository.deleteById(Long.parseLong(id)));
+    }
+
+    @Test
+    void createAll_shouldReturnBadRequestWhenBatchIsEmpty() {
+        client.post().uri("/api/1/horses/batch").contentType(MediaType.APPLICATION_JSON).bodyValue("[]")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void get_shouldReturnNotModifiedWhenETagMatches() {
+        Horse horse = create(json);
+
+        String eTag = client.get().uri("/api/1/horses/" + horse.getId()).exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED)
+                .expectBody(Horse.class).returnResult().getResponseHeaders().getETag();
+        assertThat(eTag).startsWith("\"" + horse.getId() + "-");
+
+        client.get().uri("/api/1/horses/" + horse.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        animalRepository.deleteById(Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void get_shouldReturnNotFoundWhenIdIsUnknown() {
+        client.get().uri("/api/1/horses/0").exchange().expectStatus().isNotFound();
+        client.get().uri("/api/1/horses/abc").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void getAll_shouldAnswerEveryIdInRequestOrder() {
+        Horse horse = create(json);
+
+        client.get().uri("/api/1/horses?ids=0," + horse.getId() + ",abc").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].found").isEqualTo(false)
+                .jsonPath("$[1].id").isEqualTo(horse.getId())
+                .jsonPath("$[1].animal.name").isEqualTo("Spirit")
+                .jsonPath("$[2].id").isEqualTo("abc")
+                .jsonPath("$[2].found").isEqualTo(false);
+        client.get().uri("/api/1/horses?ids=abc").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].found").isEqualTo(false);
+        client.get().uri("/api/1/horses?ids=").exchange()
+                .expectStatus().isBadRequest();
+        animalRepository.deleteById(Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void getAll_shouldRejectALimit() {
+        client.get().uri("/api/1/horses?ids=1,2&limit=5").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Ids cannot be combined with limit");
+    }
+
+    @Test
+    void all_shouldReturnNotModifiedUntilCollectionChanges() {
+        String eTag = client.get().uri("/api/1/horses").exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseHeaders().getETag();
+
+        client.get().uri("/api/1/horses").header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+                .expectStatus().isNotModified();
+        Horse horse = create(json);
+
+        client.get().uri("/api/1/horses").header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[?(@.id == '" + horse.getId() + "')].name").isEqualTo("Spirit");
+        animalRepository.deleteById(Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void all_shouldStreamWhenAskedForStreamJson() {
+        Horse horse = create(json);
+
+        List<Horse> horses = client.get().uri("/api/1/horses").accept(MediaType.APPLICATION_STREAM_JSON).exchange()
+                .expectStatus().isOk()
+                .returnResult(Horse.class).getResponseBody().collectList().block();
+
+        assertThat(horses).extracting(Horse::getId).contains(horse.getId());
+        animalRepository.deleteById(Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void all_shouldGiveEachMediaTypeItsOwnETag() {
+        HttpHeaders json = client.get().uri("/api/1/horses").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseHeaders();
+        String stream = client.get().uri("/api/1/horses").accept(MediaType.APPLICATION_STREAM_JSON).exchange()
+                .expectStatus().isOk()
+                .returnResult(Horse.class).getResponseHeaders().getETag();
+
+        assertThat(json.getVary()).contains(HttpHeaders.ACCEPT);
+        assertThat(json.getETag()).endsWith(";json\"").isNotEqualTo(stream);
+        client.get().uri("/api/1/horses").accept(MediaType.APPLICATION_STREAM_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, json.getETag()).exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void page() {
+        Horse first = create(json);
+        Horse second = create(json);
+
+        AnimalPage<Horse> page = client.get().uri("/api/1/horses?limit=1&after=" + cursorBefore(second)).exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<AnimalPage<Horse>>() { })
+                .returnResult().getResponseBody();
+
+        assertThat(page.getItems()).extracting(Horse::getId).containsExactly(second.getId());
+        animalRepository.deleteById(Long.parseLong(first.getId()));
+        animalRepository.deleteById(Long.parseLong(second.getId()));
+    }
+
+    @Test
+    void page_shouldReturnNextCursorWhenMoreRowsExist() {
+        Horse first = create(json);
+        Horse second = create(json);
+
+        AnimalPage<Horse> page = client.get().uri("/api/1/horses?limit=1&after=" + cursorBefore(first)).exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<AnimalPage<Horse>>() { })
+                .returnResult().getResponseBody();
+
+        assertThat(page.getItems()).extracting(Horse::getId).containsExactly(first.getId());
+        assertThat(page.getNext()).isNotNull();
+        animalRepository.deleteById(Long.parseLong(first.getId()));
+        animalRepository.deleteById(Long.parseLong(second.getId()));
+    }
+
+    @Test
+    void page_shouldReturnBadRequestWhenLimitOrCursorIsInvalid() {
+        client.get().uri("/api/1/horses?limit=0").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/1/horses?limit=10&after=!").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid cursor");
+    }
+
+    @Test
+    void export() {
+        Horse horse = create(json);
+
+        String body = client.get().uri("/api/1/horses/export").accept(MediaType.parseMediaType("application/x-ndjson")).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith("application/x-ndjson")
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(body).endsWith("\n");
+        assertThat(body).contains("\"id\":\"" + horse.getId() + "\"");
+        animalRepository.deleteById(Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void update() {
+        Horse horse = create(json);
+        String updated = "{ \"id\": \"" + horse.getId() + "\", \"name\": \"Storm\", \"description\": \"Stallion\" }";
+
+        client.put().uri("/api/1/horses").contentType(MediaType.APPLICATION_JSON).bodyValue(updated).exchange()
+                .expectStatus().isAccepted();
+        client.get().uri("/api/1/horses/" + horse.getId()).exchange()
+                .expectBody().jsonPath("$.name").isEqualTo("Storm");
+        animalRepository.deleteById(Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void update_shouldOnlyApplyWhileIfMatchNamesTheCurrentETag() {
+        Horse horse = create(json);
+        String eTag = client.get().uri("/api/1/horses/" + horse.getId()).exchange()
+                .expectBody(Horse.class).returnResult().getResponseHeaders().getETag();
+        String storm = "{ \"id\": \"" + horse.getId() + "\", \"name\": \"Storm\", \"description\": \"Stallion\" }";
+        String rain = "{ \"id\": \"" + horse.getId() + "\", \"name\": \"Rain\", \"description\": \"Stallion\" }";
+
+        String updated = client.put().uri("/api/1/horses").header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(storm).exchange()
+                .expectStatus().isAccepted()
+                .expectBody().returnResult().getResponseHeaders().getETag();
+        assertThat(updated).isNotEqualTo(eTag);
+        client.put().uri("/api/1/horses").header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(rain).exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        client.put().uri("/api/1/horses").header(HttpHeaders.IF_MATCH, "W/" + updated)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(rain).exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        client.get().uri("/api/1/horses/" + horse.getId()).exchange()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, updated)
+                .expectBody().jsonPath("$.name").isEqualTo("Storm");
+        animalRepository.deleteById(Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void patch_shouldOnlyWriteWhatChanged() {
+        Horse horse = create(json);
+        String eTag = client.get().uri("/api/1/horses/" + horse.getId()).exchange()
+                .expectBody(Horse.class).returnResult().getResponseHeaders().getETag();
+        MediaType mergePatch = MediaType.valueOf(MergePatches.MEDIA_TYPE);
+
+        client.patch().uri("/api/1/horses/" + horse.getId()).contentType(mergePatch)
+                .bodyValue("{ \"name\": \"Spirit\", \"description\": \"Stallion\" }").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag);
+        String patched = client.patch().uri("/api/1/horses/" + horse.getId()).header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(mergePatch).bodyValue("{ \"description\": \"Grey stallion\" }").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo("Spirit").jsonPath("$.description").isEqualTo("Grey stallion")
+                .returnResult().getResponseHeaders().getETag();
+        assertThat(patched).isNotEqualTo(eTag);
+        client.patch().uri("/api/1/horses/" + horse.getId()).header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(mergePatch).bodyValue("{ \"name\": \"Storm\" }").exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        client.patch().uri("/api/1/horses/0").contentType(mergePatch).bodyValue("{ \"id\": \"1\" }").exchange()
+                .expectStatus().isBadRequest();
+        client.patch().uri("/api/1/horses/0").contentType(mergePatch).bodyValue("{}").exchange()
+                .expectStatus().isNotFound();
+        animalRepository.deleteById(Long.parseLong(horse.getId()));
+    }
+
+    @Test
+    void update_shouldReturnNotFoundWhenIdIsUnknown() {
+        String unknown = "{ \"id\": \"0\", \"name\": \"Spirit\", \"description\": \"Stallion\" }";
+        client.put().uri("/api/1/horses").contentType(MediaType.APPLICATION_JSON).bodyValue(unknown).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void delete() {
+        Horse horse = create(json);
+
+        client.delete().uri("/api/1/horses/" + horse.getId()).exchange().expectStatus().isNoContent();
+        client.delete().uri("/api/1/horses/" + horse.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void search_shouldFollowUpdatesAndDeletes() {
+        Horse horse = create("{ \"name\": \"Bucephalus\", \"description\": \"Reactive stallion\" }");
+        String updated = "{ \"id\": \"" + horse.getId() + "\", \"name\": \"Marengo\", \"description\": \"Reactive stallion\" }";
+
+        client.get().uri("/api/1/horses/search?q=cephal").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].id").isEqualTo(horse.getId());
+        client.put().uri("/api/1/horses").contentType(MediaType.APPLICATION_JSON).bodyValue(updated).exchange()
+                .expectStatus().isAccepted();
+        client.get().uri("/api/1/horses/search?q=marengo reactive&limit=5").exchange()
+                .expectBody().jsonPath("$[0].name").isEqualTo("Marengo");
+        client.delete().uri("/api/1/horses/" + horse.getId()).exchange().expectStatus().isNoContent();
+        client.get().uri("/api/1/horses/search?q=marengo").exchange()
+                .expectBody().jsonPath("$.length()").isEqualTo(0);
+        client.get().uri("/api/1/horses/search?q=marengo&limit=0").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private Horse create(String body) {
+        return client.post().uri("/api/1/horses").contentType(MediaType.APPLICATION_JSON).bodyValue(body)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Horse.class).returnResult().getResponseBody();
+    }
+
+    private static String cursorBefore(Horse horse) {
+        String id = String.valueOf(Long.parseLong(horse.getId()) - 1);
+        return java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes());
+    }
+}
@@ -0,0 +1,85 @@
+package cx.catapult.animals.web;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static cx.catapult.animals.TestUtils.perform;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Simulates a lagging replica with a second schema holding an older copy of the horse, and checks that neither the
+ * per-type cache nor the response cache is filled from it when a read arrives without the read-your-writes cookie.
+ */
+@SpringBootTest(properties = {
+        "animals.replica.url=jdbc:mysql://${MYSQL_HOST:localhost}:3306/animals_replica",
+        "animals.cache.horse.enabled=true",
+        "animals.response-cache.enabled=true"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+@Execution(ExecutionMode.SAME_THREAD)
+class ReplicaCachingTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String id;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate.execute("CREATE DATABASE IF NOT EXISTS animals_replica");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS animals_replica.animal_tbl");
+        jdbcTemplate.execute("CREATE TABLE animals_replica.animal_tbl LIKE animals_schm.animal_tbl");
+        String created = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses")
+                .content("{ \"name\": \"Storm\", \"description\": \"Grey stallion\" }")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        id = JsonPath.read(created, "$.id");
+        // The replica has not seen the latest write yet.
+        jdbcTemplate.update("INSERT INTO animals_replica.animal_tbl (ID, NAME, DESCRIPTION, GROUP_NAME, ANIMAL_TYPE)"
+                + " VALUES (?, 'Stale', 'Before the update', 'MAMMALS', 'HORSE')", Long.parseLong(id));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/" + id)).andExpect(status().isNoContent());
+    }
+
+    @Test
+    void cachedSingleGetsShouldBeLoadedFromThePrimary() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value("Storm"));
+        }
+    }
+
+    @Test
+    void cachedMultiGetsShouldBeLoadedFromThePrimary() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?ids=" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].animal.name").value("Storm"));
+        }
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Storm"));
+    }
+}
@@ -0,0 +1,123 @@
+package cx.catapult.animals.web;
+
+import com.jayway.jsonpath.JsonPath;
+import cx.catapult.animals.domain.AnimalPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.servlet.http.Cookie;
+
+import static cx.catapult.animals.TestUtils.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Uses a second schema on the same server as the "replica" so it is easy to tell which side answered: the replica
+ * holds a horse the primary does not have, and nothing is replicated.
+ */
+@SpringBootTest(properties = {
+        "animals.replica.url=jdbc:mysql://${MYSQL_HOST:localhost}:3306/animals_replica",
+        "animals.async.enabled=true"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+@Execution(ExecutionMode.SAME_THREAD)
+class ReplicaRoutingTest {
+
+    private static final long REPLICA_ONLY_ID = 900_000_001L;
+    private static final long REPLICA_VERSION = 900_000_001L;
+    private static final String REPLICA_ETAG = "\"" + Long.toString(REPLICA_VERSION, Character.MAX_RADIX) + ";json\"";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE DATABASE IF NOT EXISTS animals_replica");
+        // Recreated each time so the replica follows the primary's migrations.
+        jdbcTemplate.execute("DROP TABLE IF EXISTS animals_replica.animal_tbl");
+        jdbcTemplate.execute("CREATE TABLE animals_replica.animal_tbl LIKE animals_schm.animal_tbl");
+        jdbcTemplate.update("INSERT INTO animals_replica.animal_tbl (ID, NAME, DESCRIPTION, GROUP_NAME, ANIMAL_TYPE)"
+                + " VALUES (?, 'Shadow', 'Replica only', 'MAMMALS', 'HORSE')", REPLICA_ONLY_ID);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS animals_replica.animal_type_version_tbl");
+        jdbcTemplate.execute("CREATE TABLE animals_replica.animal_type_version_tbl LIKE animals_schm.animal_type_version_tbl");
+        jdbcTemplate.update("INSERT INTO animals_replica.animal_type_version_tbl (ANIMAL_TYPE, VERSION) VALUES ('HORSE', ?)",
+                REPLICA_VERSION);
+    }
+
+    @Test
+    void readsShouldGoToTheReplica() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + REPLICA_ONLY_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Shadow"));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?ids=" + REPLICA_ONLY_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].animal.name").value("Shadow"));
+    }
+
+    @Test
+    void collectionReadsShouldGoToTheReplicaAlongWithTheirVersion() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses?limit=" + AnimalPage.MAX_LIMIT))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, REPLICA_ETAG))
+                .andExpect(jsonPath("$.items[?(@.name == 'Shadow')]").isNotEmpty());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, REPLICA_ETAG))
+                .andExpect(jsonPath("$[?(@.name == 'Shadow')]").isNotEmpty());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses").header(HttpHeaders.IF_NONE_MATCH, REPLICA_ETAG))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void writesShouldGoToThePrimary() throws Exception {
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/" + REPLICA_ONLY_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void readsShouldGoToThePrimaryWithinTheReadYourWritesWindow() throws Exception {
+        MvcResult created = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses")
+                .content("{ \"name\": \"Spirit\", \"description\": \"Stallion\" }")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie cookie = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        String id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+        assertThat(cookie).isNotNull();
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id))
+                .andExpect(status().isNotFound());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id).cookie(cookie))
+                .andExpect(status().isOk());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + REPLICA_ONLY_ID).cookie(cookie))
+                .andExpect(status().isNotFound());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + REPLICA_ONLY_ID)
+                .cookie(new Cookie(ReadYourWritesFilter.COOKIE, "expired")))
+                .andExpect(status().isOk());
+        MvcResult collection = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses").cookie(cookie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Shadow')]").isEmpty())
+                .andReturn();
+        assertThat(collection.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(REPLICA_ETAG);
+
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/" + id)).andExpect(status().isNoContent());
+    }
+}
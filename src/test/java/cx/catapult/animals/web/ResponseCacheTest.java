@@ -0,0 +1,117 @@
+package cx.catapult.animals.web;
+
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static cx.catapult.animals.TestUtils.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "animals.response-cache.enabled=true")
+@AutoConfigureMockMvc
+// Counts response cache hits, which other tests of this context would add to.
+@Execution(ExecutionMode.SAME_THREAD)
+class ResponseCacheTest {
+
+    private static final String DESCRIPTION = "A horse with a description long and repetitive enough, long and repetitive "
+            + "enough, to compress";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void get_shouldServeCachedBodiesUntilTheHorseChanges() throws Exception {
+        String json = "{ \"name\": \"Spirit\", \"description\": \"" + DESCRIPTION + "\" }";
+        MvcResult created = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated()).andReturn();
+        String id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+        double hits = hits("horse");
+
+        MvcResult first = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(jsonPath("$.description").value(DESCRIPTION))
+                .andReturn();
+        MvcResult gzipped = perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        assertThat(gunzip(gzipped.getResponse().getContentAsByteArray())).isEqualTo(first.getResponse().getContentAsString());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id)
+                .header(HttpHeaders.IF_NONE_MATCH, first.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+        assertThat(hits("horse") - hits).isEqualTo(2.0);
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        String gzippedETag = gzipped.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(gzippedETag).isEqualTo(eTag.substring(0, eTag.length() - 1) + ";gzip\"");
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, gzippedETag));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id).header(HttpHeaders.IF_NONE_MATCH, gzippedETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        String updated = "{ \"id\": \"" + id + "\", \"name\": \"Rain\", \"description\": \"Mare\" }";
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses").header(HttpHeaders.IF_MATCH, gzippedETag)
+                .content(updated).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().is2xxSuccessful());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.name").value("Rain"));
+
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/" + id)).andExpect(status().isNoContent());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void get_shouldServeCachedCats() throws Exception {
+        String json = "{ \"name\": \"Tom\", \"description\": \"Bob cat\" }";
+        MvcResult created = perform(mvc, MockMvcRequestBuilders.post("/api/1/cats").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated()).andReturn();
+        String id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+        double hits = hits("cat");
+
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/" + id)).andExpect(jsonPath("$.name").value("Tom"));
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/cats/" + id)).andExpect(jsonPath("$.name").value("Tom"));
+
+        assertThat(hits("cat") - hits).isEqualTo(1.0);
+    }
+
+    private double hits(String type) {
+        return meterRegistry.get("cache.gets").tag("cache", type + ".responses").tag("result", "hit").functionCounter().count();
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            byte[] buffer = new byte[4096];
+            int length = 0;
+            for (int read; (read = in.read(buffer, length, buffer.length - length)) > 0; ) {
+                length += read;
+            }
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
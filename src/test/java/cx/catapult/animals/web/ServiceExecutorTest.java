@@ -0,0 +1,86 @@
+package cx.catapult.animals.web;
+
+import cx.catapult.animals.config.AnimalsProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ServiceExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void supply_shouldRunInlineWhenDisabled() {
+        ServiceExecutor executor = new ServiceExecutor(new AnimalsProperties(), registry);
+        String caller = Thread.currentThread().getName();
+
+        CompletableFuture<String> future = executor.supply(() -> Thread.currentThread().getName());
+
+        assertThat(future).isCompletedWithValue(caller);
+        assertThat(registry.find("executor.rejected").counter()).isNull();
+        executor.destroy();
+    }
+
+    @Test
+    public void supply_shouldRunOnPoolWhenEnabled() throws Exception {
+        ServiceExecutor executor = new ServiceExecutor(asyncProperties(), registry);
+
+        String thread = executor.supply(() -> Thread.currentThread().getName()).get();
+        executor.run(() -> { }).get();
+
+        assertThat(thread).startsWith("animals-service-");
+        // The pool counts a task as completed only after the task has completed its future.
+        FunctionCounter completed = registry.get("executor.completed").tag("name", ServiceExecutor.NAME).functionCounter();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (completed.count() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(completed.count()).isEqualTo(2);
+        executor.destroy();
+    }
+
+    @Test
+    public void supply_shouldRejectWhenQueueIsFull() throws Exception {
+        ServiceExecutor executor = new ServiceExecutor(asyncProperties(), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<Void> running = executor.run(() -> {
+            started.countDown();
+            await(release);
+        });
+        started.await();
+        CompletableFuture<Void> queued = executor.run(() -> { });
+
+        assertThatThrownBy(() -> executor.run(() -> { })).isInstanceOf(RejectedExecutionException.class);
+        assertThat(registry.get("executor.rejected").tag("name", ServiceExecutor.NAME).counter().count()).isEqualTo(1);
+        release.countDown();
+        running.get();
+        queued.get();
+        executor.destroy();
+    }
+
+    private AnimalsProperties asyncProperties() {
+        AnimalsProperties properties = new AnimalsProperties();
+        properties.getAsync().setEnabled(true);
+        properties.getAsync().setPoolSize(1);
+        properties.getAsync().setQueueCapacity(1);
+        return properties;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
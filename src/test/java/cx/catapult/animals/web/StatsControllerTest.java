@@ -0,0 +1,52 @@
+package cx.catapult.animals.web;
+
+import com.jayway.jsonpath.JsonPath;
+import cx.catapult.animals.domain.AnimalStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static cx.catapult.animals.TestUtils.convertStringToObject;
+import static cx.catapult.animals.TestUtils.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+// Counts amphibian horses, which only this test creates.
+@Execution(ExecutionMode.SAME_THREAD)
+class StatsControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void get_shouldFollowCreatesAndDeletes() throws Exception {
+        int before = amphibianHorses();
+        String json = "{ \"name\": \"Kelpie\", \"description\": \"Water horse\", \"group\": \"AMPHIBIAN\" }";
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses").content(json).contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated()).andReturn();
+        String id = JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+
+        assertThat(amphibianHorses()).isEqualTo(before + 1);
+
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/" + id)).andExpect(status().isNoContent());
+
+        assertThat(amphibianHorses()).isEqualTo(before);
+    }
+
+    private int amphibianHorses() throws Exception {
+        MvcResult result = perform(mvc, MockMvcRequestBuilders.get("/api/1/stats").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()).andReturn();
+        AnimalStats stats = (AnimalStats) convertStringToObject(result.getResponse().getContentAsString(), AnimalStats.class);
+        AnimalStats.TypeStats horses = stats.getTypes().get("HORSE");
+        return horses == null ? 0 : horses.getGroups().getOrDefault("AMPHIBIAN", 0L).intValue();
+    }
+}
@@ -0,0 +1,60 @@
+package cx.catapult.animals.web;
+
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static cx.catapult.animals.TestUtils.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "animals.write-behind.enabled=true",
+        "animals.write-behind.flush-interval=5ms"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+@Execution(ExecutionMode.SAME_THREAD)
+class WriteBehindTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void writesShouldBeVisibleOnceAcknowledged() throws Exception {
+        String created = perform(mvc, MockMvcRequestBuilders.post("/api/1/horses")
+                .content("{ \"name\": \"Tom\", \"description\": \"Queued\" }")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(created, "$.id");
+
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses/")
+                .content("{ \"id\": \"" + id + "\", \"name\": \"Storm\", \"description\": \"Batched\" }")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted());
+        perform(mvc, MockMvcRequestBuilders.get("/api/1/horses/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Storm"));
+
+        perform(mvc, MockMvcRequestBuilders.delete("/api/1/horses/" + id)).andExpect(status().isNoContent());
+        perform(mvc, MockMvcRequestBuilders.put("/api/1/horses/")
+                .content("{ \"id\": \"" + id + "\", \"name\": \"Storm\", \"description\": \"Gone\" }")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+        assertThat(meterRegistry.get("animals.write.behind.flush").tag("type", "horse").timer().count()).isEqualTo(3);
+    }
+}